@@ -0,0 +1,126 @@
+package com.library.benchmark;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.library.LibraryBookCatalogApplication;
+import com.library.entity.Book;
+import com.library.entity.Genre;
+
+/**
+ * Builds the synthetic catalogs used by the benchmarks. Book {@code i} is the same for every
+ * run and catalog size, so results can be compared.
+ */
+final class BenchmarkCatalog {
+
+    static final String[] WORDS = {
+            "history", "river", "garden", "shadow", "empire", "winter", "silent", "journey",
+            "ocean", "secret", "mountain", "letters", "night", "stone", "glass", "crown"
+    };
+
+    private static final int INSERT_BATCH = 10_000;
+
+    /**
+     * The prod profile reads jwt.secret from the environment. No tokens are issued here, so a
+     * random key will do.
+     */
+    private static final String NO_JWT_SECRET = "jwt.secret=";
+
+    private BenchmarkCatalog() {
+    }
+
+    static String isbn(long i) {
+        return String.format("BEN%010d", i);
+    }
+
+    static Book book(long i) {
+        int n = WORDS.length;
+        String title = WORDS[(int) (i % n)] + " " + WORDS[(int) ((i / n) % n)] + " " + i;
+        return new Book(isbn(i), title, "Author " + (i % 5_000), 1800 + (int) (i % 226),
+                Genre.values()[(int) (i % Genre.values().length)], 5);
+    }
+
+    static List<Book> books(int size) {
+        List<Book> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            books.add(book(i));
+        }
+        return books;
+    }
+
+    /**
+     * Starts the application without a web server against a fresh in-memory H2 database
+     * holding {@code size} books. Rows are inserted once the context is refreshed but before
+     * it is ready, so the in-memory views and search index load the full catalog at startup,
+     * as they would in production.
+     */
+    static ConfigurableApplicationContext start(int size) {
+        return start(size, new String[0],
+                "spring.datasource.url=jdbc:h2:mem:bench" + size + "_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "spring.flyway.locations=classpath:db/migration");
+    }
+
+    /**
+     * Starts the application with the prod profile's file database in {@code dataDir}, which
+     * must not exist yet, and inserts {@code size} books as {@link #start(int)} does.
+     */
+    static ConfigurableApplicationContext startOnFile(int size, Path dataDir) {
+        return start(size, new String[] { "prod" }, "library.data-dir=" + dataDir, NO_JWT_SECRET);
+    }
+
+    /**
+     * Starts the application with the prod profile against the catalog already in {@code dataDir}.
+     */
+    static ConfigurableApplicationContext openFile(Path dataDir) {
+        return builder(new String[] { "prod" }).run(arguments("library.data-dir=" + dataDir, NO_JWT_SECRET));
+    }
+
+    private static ConfigurableApplicationContext start(int size, String[] profiles, String... properties) {
+        return builder(profiles)
+                .listeners((ApplicationListener<ApplicationStartedEvent>) event ->
+                        insert(event.getApplicationContext().getBean(JdbcTemplate.class), size))
+                .run(arguments(properties));
+    }
+
+    private static SpringApplicationBuilder builder(String[] profiles) {
+        return new SpringApplicationBuilder(LibraryBookCatalogApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profiles)
+                .properties("spring.jpa.show-sql=false", "logging.level.root=WARN");
+    }
+
+    /**
+     * Passes properties as command-line arguments, which take precedence over the
+     * application and profile properties files.
+     */
+    private static String[] arguments(String... properties) {
+        String[] arguments = new String[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            arguments[i] = "--" + properties[i];
+        }
+        return arguments;
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, int size) {
+        String sql = "insert into book (isbn, title, author, publication_year, genre, copies) values (?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < size; i++) {
+            Book book = book(i);
+            rows.add(new Object[] { book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublicationYear(),
+                    book.getGenre().name(), book.getCopiesAvailable() });
+            if (rows.size() == INSERT_BATCH || i == size - 1) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+
+}
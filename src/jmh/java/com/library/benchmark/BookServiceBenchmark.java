@@ -0,0 +1,89 @@
+package com.library.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.library.entity.Book;
+import com.library.entity.Genre;
+import com.library.service.BookService;
+
+/**
+ * {@link BookService} read and write paths against an H2 catalog of {@code catalogSize} books.
+ *
+ * <p>Run with {@code mvn -Pbenchmark verify}; see the README for options.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class BookServiceBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private BookService bookService;
+
+    private final AtomicLong nextIsbn = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkCatalog.start(catalogSize);
+        bookService = context.getBean(BookService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book getBookByISBN() {
+        return bookService.getBookByISBN(BenchmarkCatalog.isbn(ThreadLocalRandom.current().nextInt(catalogSize)));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Book> getBooks() {
+        return bookService.getBooks();
+    }
+
+    @Benchmark
+    public List<Book> getTop10ByTitle() {
+        String[] words = BenchmarkCatalog.WORDS;
+        return bookService.getTop10ByTitle(words[ThreadLocalRandom.current().nextInt(words.length)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Book> getAllBooksSortedByDesc() {
+        return bookService.getAllBooksSortedByDesc("year");
+    }
+
+    @Benchmark
+    public Book createBook() {
+        String isbn = String.format("NEW%010d", nextIsbn.getAndIncrement());
+        return bookService.createBook(new Book(isbn, "Benchmark " + isbn, "Benchmark Author", 2000, Genre.FICTION, 1));
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.library.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import com.library.snapshot.CatalogSnapshot;
+
+/**
+ * Snapshot export and restore of a catalog of {@code catalogSize} books in the prod profile's
+ * file database. Each invocation handles the whole catalog, so each is timed once.
+ *
+ * <p>Run with {@code mvn -Pbenchmark verify}; see the README for options.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class CatalogSnapshotBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int catalogSize;
+
+    private Path directory;
+
+    private Path snapshot;
+
+    private ConfigurableApplicationContext context;
+
+    private CatalogSnapshot catalogSnapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot-benchmark");
+        context = BenchmarkCatalog.startOnFile(catalogSize, directory.resolve("data"));
+        catalogSnapshot = context.getBean(CatalogSnapshot.class);
+        snapshot = directory.resolve("catalog.snapshot");
+        catalogSnapshot.export(snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public CatalogSnapshot.Counts export() {
+        return catalogSnapshot.export(snapshot);
+    }
+
+    @Benchmark
+    public CatalogSnapshot.Counts restore() {
+        return catalogSnapshot.restore(snapshot);
+    }
+
+}
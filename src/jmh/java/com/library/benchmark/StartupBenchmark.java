@@ -0,0 +1,75 @@
+package com.library.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Time until the application is ready with {@code catalogSize} books: reopening the prod
+ * profile's file database, against loading the same books into an in-memory database as
+ * every start of the other profiles must. Both include loading the in-memory views.
+ *
+ * <p>Run with {@code mvn -Pbenchmark verify}; see the README for options.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class StartupBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int catalogSize;
+
+    private Path directory;
+
+    private ConfigurableApplicationContext started;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("startup-benchmark");
+        BenchmarkCatalog.startOnFile(catalogSize, directory).close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        if (started != null) {
+            started.close();
+            started = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void fromFile() {
+        started = BenchmarkCatalog.openFile(directory);
+    }
+
+    @Benchmark
+    public void inMemoryReload() {
+        started = BenchmarkCatalog.start(catalogSize);
+    }
+
+}
@@ -0,0 +1,305 @@
+package com.library.loadtest;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.LibraryBookCatalogApplication;
+import com.library.entity.Genre;
+import com.library.entity.User;
+import com.library.service.UserDetailsServiceImpl;
+
+/**
+ * Runs the same HTTP workload against the application in platform-thread mode, virtual-thread
+ * mode (the {@code virtual-threads} profile) and reactive mode (the {@code reactive} profile).
+ * Prints and writes throughput, median and p99 latency for each run, along with the peak
+ * platform thread count, the peak heap in use and the heap still in use after a GC. The
+ * clients share the JVM with the server, so those figures are best compared between modes.
+ *
+ * <p>Each of {@code loadtest.clients} clients runs on its own virtual thread and sends requests
+ * back to back with a bearer token. Requests are 60% single-book lookups, 30% filtered
+ * {@code /query} pages and 10% {@code /page} keyset pages. Settings are system properties:
+ * {@code loadtest.clients} (1000), {@code loadtest.catalogSize} (10000),
+ * {@code loadtest.warmupSeconds} (10), {@code loadtest.seconds} (30),
+ * {@code loadtest.datasourceUrl} (a fresh in-memory H2 per run) and {@code loadtest.resultFile}.
+ */
+public final class ServerModeLoadTest {
+
+    private static final String USERNAME = "loadtest";
+    private static final String PASSWORD = "loadtest-password";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ServerModeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 1000);
+        int catalogSize = Integer.getInteger("loadtest.catalogSize", 10_000);
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmupSeconds", 10));
+        Duration measurement = Duration.ofSeconds(Long.getLong("loadtest.seconds", 30));
+        Path resultFile = Path.of(System.getProperty("loadtest.resultFile", "target/loadtest-result.json"));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Mode mode : Mode.values()) {
+            try (ConfigurableApplicationContext context = start(mode, catalogSize)) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                createUser(context);
+                String token = login(baseUrl);
+                run(baseUrl, token, clients, catalogSize, warmup);
+                Map<String, Object> result = measure(() -> run(baseUrl, token, clients, catalogSize, measurement));
+                result.put("mode", mode.name().toLowerCase(Locale.ROOT));
+                result.put("clients", clients);
+                result.put("catalogSize", catalogSize);
+                System.out.println(result);
+                results.add(result);
+            }
+        }
+        Files.createDirectories(resultFile.toAbsolutePath().getParent());
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(resultFile.toFile(), results);
+        System.out.println("Results written to " + resultFile.toAbsolutePath());
+    }
+
+    private enum Mode {
+
+        PLATFORM(null),
+        VIRTUAL("virtual-threads"),
+        REACTIVE("reactive");
+
+        private final String profile;
+
+        Mode(String profile) {
+            this.profile = profile;
+        }
+    }
+
+    private interface Workload {
+
+        Map<String, Object> run() throws Exception;
+    }
+
+    private static ConfigurableApplicationContext start(Mode mode, int catalogSize) {
+        String url = System.getProperty("loadtest.datasourceUrl", "");
+        if (url.isBlank()) {
+            url = "jdbc:h2:mem:loadtest" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        }
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(LibraryBookCatalogApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + url,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .listeners((ApplicationListener<ApplicationStartedEvent>) event ->
+                        seed(event.getApplicationContext().getBean(JdbcTemplate.class), catalogSize));
+        if (mode.profile != null) {
+            builder.profiles(mode.profile);
+        }
+        // A command-line argument, since application.properties would override a default property
+        return builder.run("--spring.flyway.locations=classpath:db/migration");
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int catalogSize) {
+        String sql = "insert into book (isbn, title, author, publication_year, genre, copies) values (?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < catalogSize; i++) {
+            rows.add(new Object[] { isbn(i), "Load Test Title " + i, "Author " + (i % 1000), 1800 + i % 226,
+                    Genre.values()[i % Genre.values().length].name(), 5 });
+            if (rows.size() == 10_000 || i == catalogSize - 1) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private static String isbn(int i) {
+        return String.format("LOD%010d", i);
+    }
+
+    /**
+     * Creates the load test user directly, since /api/v1/create-user is not served in reactive mode.
+     */
+    private static void createUser(ConfigurableApplicationContext context) {
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setPassword(PASSWORD);
+        user.setEmail("loadtest@example.com");
+        context.getBean(UserDetailsServiceImpl.class).saveUser(user);
+    }
+
+    private static String login(String baseUrl) throws IOException, InterruptedException {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            return login(client, baseUrl);
+        }
+    }
+
+    private static String login(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        String credentials = MAPPER.writeValueAsString(Map.of("username", USERNAME, "password", PASSWORD));
+        HttpResponse<String> response = client.send(post(baseUrl + "/api/v1/auth/login", credentials),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: " + response.statusCode() + " " + response.body());
+        }
+        JsonNode body = MAPPER.readTree(response.body());
+        return body.get("token").asText();
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static Map<String, Object> run(String baseUrl, String token, int clients, int catalogSize,
+                                           Duration duration) throws Exception {
+        Genre[] genres = Genre.values();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>(clients);
+        long[] errorCounts = new long[clients];
+        try (HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int clientIndex = c;
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    start.await();
+                    long deadline = System.nanoTime() + duration.toNanos();
+                    while (System.nanoTime() < deadline) {
+                        int pick = random.nextInt(100);
+                        String path;
+                        if (pick < 60) {
+                            path = "/api/v2/books/" + isbn(random.nextInt(catalogSize));
+                        } else if (pick < 90) {
+                            path = "/api/v2/books/query?sort=-year&size=20&genre=" + genres[random.nextInt(genres.length)];
+                        } else {
+                            path = "/api/v2/books/page?size=20&after=" + isbn(random.nextInt(catalogSize));
+                        }
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .header("Authorization", "Bearer " + token)
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errorCounts[clientIndex]++;
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errorCounts[clientIndex]++;
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - sent;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            List<long[]> perClient = new ArrayList<>(clients);
+            for (Future<long[]> future : futures) {
+                perClient.add(future.get());
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            return summarize(perClient, Arrays.stream(errorCounts).sum(), elapsedNanos);
+        }
+    }
+
+    /**
+     * Runs {@code workload} while sampling the heap every 50 ms, and adds the memory and
+     * thread figures to its result.
+     */
+    private static Map<String, Object> measure(Workload workload) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong peakHeap = new AtomicLong();
+        threads.resetPeakThreadCount();
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        Map<String, Object> result;
+        try {
+            result = workload.run();
+        } finally {
+            sampler.interrupt();
+            sampler.join();
+        }
+        int peakThreads = threads.getPeakThreadCount();
+        System.gc();
+        result.put("peakPlatformThreads", peakThreads);
+        result.put("peakHeapMb", peakHeap.get() / (1024.0 * 1024.0));
+        result.put("heapAfterGcMb", memory.getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0));
+        return result;
+    }
+
+    private static Map<String, Object> summarize(List<long[]> perClient, long errors, long elapsedNanos) {
+        int total = perClient.stream().mapToInt(latencies -> latencies.length).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] latencies : perClient) {
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        Arrays.sort(all);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", total);
+        result.put("errors", errors);
+        result.put("throughputPerSecond", total * 1_000_000_000.0 / elapsedNanos);
+        result.put("p50Millis", percentile(all, 0.50));
+        result.put("p99Millis", percentile(all, 0.99));
+        result.put("maxMillis", total == 0 ? 0 : all[total - 1] / 1_000_000.0);
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.library.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.library.entity.LoginRequest;
+import com.library.entity.TokenResponse;
+import com.library.security.JwtTokenService;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+public class AuthController {
+
+    private final AuthenticationManager authenticationManager;
+
+    private final JwtTokenService tokenService;
+
+    public AuthController(AuthenticationManager authenticationManager, JwtTokenService tokenService) {
+        this.authenticationManager = authenticationManager;
+        this.tokenService = tokenService;
+    }
+
+    /**
+     * Checks the credentials once and returns a bearer token for the following requests.
+     * The token carries the user's roles, so requests that use it skip the user lookup and
+     * password check.
+     *
+     * <p>Returns a {@link Mono} so the same controller serves both the servlet and the WebFlux
+     * stack. The BCrypt check runs on the bounded elastic scheduler, off the event loop.
+     */
+    @PostMapping("/login")
+    public Mono<ResponseEntity<TokenResponse>> login(@Valid @RequestBody LoginRequest request) {
+        return Mono.fromCallable(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword()));
+            String token = tokenService.issue(authentication);
+            return new ResponseEntity<>(new TokenResponse(token, "Bearer", tokenService.getExpiration().toSeconds()),
+                    HttpStatus.OK);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+}
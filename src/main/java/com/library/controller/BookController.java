@@ -0,0 +1,373 @@
+package com.library.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.entity.Book;
+import com.library.entity.BookBatchResult;
+import com.library.entity.BookFacets;
+import com.library.entity.BookImportReport;
+import com.library.entity.BookPatch;
+import com.library.entity.BookPatchItem;
+import com.library.entity.BookQuery;
+import com.library.entity.CursorPage;
+import com.library.exception.BadRequestException;
+import com.library.exception.PreconditionFailedException;
+import com.library.service.BookETags;
+import com.library.service.BookFields;
+import com.library.service.BookImportService;
+import com.library.service.BookService;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The book API for both versions. Endpoints shared by V1 and V2 are mapped once under
+ * {@code /api/{version}/books}; bulk writes, checkout and return exist only under
+ * {@code /api/v2/books}.
+ *
+ * <p>V2 reads accept a sparse fieldset, e.g. {@code ?fields=isbn,title}: responses carry only
+ * those properties and listings read only those columns. V1 ignores {@code fields} and always
+ * returns whole books.
+ *
+ * <p>Reads carry an ETag and honour {@code If-None-Match}. A book is tagged by its version; every
+ * listing by the catalog tag, which changes on any write.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api")
+public class BookController {
+
+    private static final String BOOKS = "/{version:v1|v2}/books";
+
+    private static final String V2_BOOKS = "/v2/books";
+
+    private final BookService bookService;
+
+    private final BookImportService bookImportService;
+
+    private final ObjectMapper objectMapper;
+
+    private final BookETags bookETags;
+
+    @Autowired
+    private Validator validator;
+
+    public BookController(BookService bookService, BookImportService bookImportService, ObjectMapper objectMapper,
+                          BookETags bookETags) {
+        this.bookService = bookService;
+        this.bookImportService = bookImportService;
+        this.objectMapper = objectMapper;
+        this.bookETags = bookETags;
+    }
+
+    /**
+     * Create a new book with manual validation. It demonstrates how to handle validation
+     * errors without using @Valid annotation.
+     * @param book
+     * @return
+     */
+    /* 
+    @PostMapping(BOOKS)
+    public ResponseEntity<Book> createBook(@RequestBody Book book) {
+        System.out.println("Validating book: " + book);
+        Set<ConstraintViolation<Book>> violations = validator.validate(book);
+        if( !violations.isEmpty()) {
+            StringBuilder sb = new StringBuilder();
+            for (ConstraintViolation<Book> violation : violations) {
+                sb.append(violation.getMessage()).append("; ");
+            }
+            throw new IllegalArgumentException("Validation failed: " + sb.toString());
+        }
+        return new ResponseEntity<>(bookService.createBook(book), HttpStatus.CREATED);
+    }
+
+    */
+
+    @PostMapping(BOOKS)
+    public ResponseEntity<Book> createBook(@Valid @RequestBody Book book) {
+        return new ResponseEntity<>(bookService.createBook(book), HttpStatus.CREATED);
+    }
+
+    /**
+     * Bulk import from a JSON array of books. The body is parsed as it streams in; rows that fail
+     * validation or duplicate an existing ISBN are listed in the report and skipped.
+     */
+    @PostMapping(value = V2_BOOKS + "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookImportReport> importBooksJson(InputStream body) throws IOException {
+        return new ResponseEntity<>(bookImportService.importJson(body), HttpStatus.OK);
+    }
+
+    @PostMapping(value = V2_BOOKS + "/bulk", consumes = "text/csv")
+    public ResponseEntity<BookImportReport> importBooksCsv(InputStream body) throws IOException {
+        return new ResponseEntity<>(bookImportService.importCsv(body), HttpStatus.OK);
+    }
+
+    @GetMapping(BOOKS)
+    public ResponseEntity<List<?>> getAllBooks(@PathVariable String version,
+                                               @RequestParam(required = false) String fields,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookFields bookFields = fields(version, fields);
+        return listing(ifNoneMatch, () -> bookFields.shape(bookService.getBooks(bookFields)));
+    }
+
+    @GetMapping(BOOKS + "/page")
+    public ResponseEntity<CursorPage<?>> getBooksPage(@PathVariable String version,
+                                                      @RequestParam(required = false) String after,
+                                                      @RequestParam(defaultValue = "50") int size,
+                                                      @RequestParam(required = false) String fields,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookFields bookFields = fields(version, fields);
+        return listing(ifNoneMatch, () -> bookFields.shape(bookService.getBooksPage(after, size, bookFields)));
+    }
+
+    /**
+     * Streams the whole catalog as newline-delimited JSON, one book per line. Rows are read
+     * through a cursor and written as they arrive, so heap use does not grow with catalog size.
+     */
+    @GetMapping(value = BOOKS + "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBooks(@PathVariable String version,
+                                                             @RequestParam(required = false) String fields,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookFields bookFields = fields(version, fields);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return listing(ifNoneMatch, () -> out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+            bookService.forEachBook(book -> {
+                try {
+                    writer.writeValue(generator, bookFields.isAll() ? book : bookFields.shape(book));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        });
+    }
+
+    /**
+     * One book, tagged with its version. A client that already holds the current version gets
+     * 304, answered from the tag alone when the tag is known.
+     */
+    @GetMapping(BOOKS + "/{isbn}")
+    public ResponseEntity<Object> getBookByISBN(@PathVariable String version, @PathVariable String isbn,
+                                                @RequestParam(required = false) String fields,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String known = bookETags.get(isbn);
+        if (known != null && matches(ifNoneMatch, known)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(known).build();
+        }
+        BookFields bookFields = fields(version, fields);
+        Book book = bookService.getBookByISBN(isbn);
+        bookETags.remember(book);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(BookETags.of(book));
+        if (book.getLastModified() != null) {
+            response.lastModified(book.getLastModified());
+        }
+        return response.body(bookFields.isAll() ? book : bookFields.shape(book));
+    }
+
+    /**
+     * Replaces a book. With {@code If-Match} the update applies only to that version and
+     * answers 412 otherwise; the response carries the new ETag for the next conditional write.
+     */
+    @PutMapping(BOOKS + "/{isbn}")
+    public ResponseEntity<Book> updateBook(@PathVariable String isbn, @Valid @RequestBody Book book,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Book saved = bookService.updateBook(isbn, book, expectedETag(ifMatch));
+        return ResponseEntity.ok().eTag(BookETags.of(saved)).body(saved);
+    }
+
+    @PatchMapping(BOOKS + "/{isbn}")
+    public ResponseEntity<Book> updateBookPartial(@PathVariable String isbn, @Valid @RequestBody BookPatch bookPatch,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Book saved = bookService.updateBookPartial(isbn, bookPatch, expectedETag(ifMatch));
+        return ResponseEntity.ok().eTag(BookETags.of(saved)).body(saved);
+    }
+
+    /**
+     * Applies many partial updates in one transaction. Each item gets its own result, so an
+     * unknown ISBN or invalid patch does not fail the rest of the batch.
+     */
+    @PatchMapping(V2_BOOKS + "/bulk")
+    public ResponseEntity<List<BookBatchResult>> updateBooksPartial(@RequestBody List<BookPatchItem> items) {
+        return new ResponseEntity<>(bookService.updateBooksPartial(items), HttpStatus.OK);
+    }
+
+    @PutMapping(V2_BOOKS + "/bulk")
+    public ResponseEntity<List<BookBatchResult>> updateBooks(@RequestBody List<Book> books) {
+        return new ResponseEntity<>(bookService.updateBooks(books), HttpStatus.OK);
+    }
+
+    @PostMapping(V2_BOOKS + "/{isbn}/checkout")
+    public ResponseEntity<Void> checkoutBook(@PathVariable String isbn) {
+        bookService.checkoutBook(isbn);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @PostMapping(V2_BOOKS + "/{isbn}/return")
+    public ResponseEntity<Void> returnBook(@PathVariable String isbn) {
+        bookService.returnBook(isbn);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @DeleteMapping(BOOKS + "/{isbn}")
+    public ResponseEntity<Void> deleteBook(@PathVariable String isbn) {
+            bookService.deleteBook(isbn);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @GetMapping(BOOKS + "/isbn-range")
+    public ResponseEntity<List<?>> getBooksByIsbnRange(@PathVariable String version,
+                                                       @RequestParam String startIsbn, @RequestParam String endIsbn,
+                                                       @RequestParam(required = false) String fields,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookFields bookFields = fields(version, fields);
+        return listing(ifNoneMatch, () -> bookFields.shape(bookService.getBooksByIsbnRange(startIsbn, endIsbn, bookFields)));
+    }
+
+    @GetMapping(BOOKS + "/sorted/{year}/desc")
+    public ResponseEntity<List<?>> getAllBooksSortedByDesc(@PathVariable String version, @PathVariable String year,
+                                                           @RequestParam(required = false) String fields,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookFields bookFields = fields(version, fields);
+        return listing(ifNoneMatch, () -> bookFields.shape(bookService.getAllBooksSortedByDesc(year, bookFields)));
+    }
+
+    /**
+     * Filtered, multi-field sorted listing with keyset pagination, e.g.
+     * {@code ?genre=FICTION&yearFrom=1900&sort=-year,title&size=50}. Pass the returned
+     * {@code nextCursor} back as {@code cursor} with the same filters and sort.
+     */
+    @GetMapping(BOOKS + "/query")
+    public ResponseEntity<CursorPage<?>> queryBooks(@PathVariable String version, BookQuery query,
+                                                    @RequestParam(required = false) String fields,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookFields bookFields = fields(version, fields);
+        return listing(ifNoneMatch, () -> bookFields.shape(bookService.queryBooks(query, bookFields)));
+    }
+
+    /**
+     * Book counts per genre and per decade plus total copies, for faceted navigation.
+     * Answered from counters kept in memory, never from the database.
+     */
+    @GetMapping(V2_BOOKS + "/facets")
+    public ResponseEntity<BookFacets> getFacets(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return listing(ifNoneMatch, bookService::getFacets);
+    }
+
+    @GetMapping(BOOKS + "/top3/newest")
+    public ResponseEntity<List<?>> getTop3NewBooks(@PathVariable String version,
+                                                   @RequestParam(required = false) String fields,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookFields bookFields = fields(version, fields);
+        return listing(ifNoneMatch, () -> bookFields.shape(bookService.getTop3NewBooks()));
+    }
+
+    @GetMapping(BOOKS + "/newest")
+    public ResponseEntity<List<?>> getNewestBooks(@PathVariable String version,
+                                                  @RequestParam(defaultValue = "3") int limit,
+                                                  @RequestParam(required = false) String fields,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookFields bookFields = fields(version, fields);
+        return listing(ifNoneMatch, () -> bookFields.shape(bookService.getNewestBooks(limit)));
+    }
+
+    @GetMapping(BOOKS + "/top10/search")
+    public ResponseEntity<List<?>> getTop10ByTitle(@PathVariable String version, @RequestParam String title,
+                                                   @RequestParam(required = false) String fields,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookFields bookFields = fields(version, fields);
+        return listing(ifNoneMatch, () -> bookFields.shape(bookService.getTop10ByTitle(title)));
+    }
+
+    @GetMapping(BOOKS + "/search")
+    public ResponseEntity<List<?>> searchBooks(@PathVariable String version, @RequestParam String q,
+                                               @RequestParam(defaultValue = "10") int limit,
+                                               @RequestParam(required = false) String fields,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookFields bookFields = fields(version, fields);
+        return listing(ifNoneMatch, () -> bookFields.shape(bookService.searchBooks(q, limit)));
+    }
+
+    /**
+     * A listing tagged with the catalog tag, which is read before the listing so a write that
+     * lands in between can only make the tag older than the body, never newer. A client that
+     * already holds the current tag gets 304 without the listing being built.
+     */
+    private <T> ResponseEntity<T> listing(String ifNoneMatch, Supplier<T> body) {
+        String eTag = bookETags.catalog();
+        if (matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(body.get());
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names {@code eTag}. GETs compare weakly, so
+     * {@code W/} tags match too, which keeps 304s working when compression weakens the tag.
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String quoted = '"' + eTag + '"';
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(quoted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The unquoted tag an {@code If-Match} header asks for, or null for none or {@code *}.
+     * If-Match compares strongly, so a weak tag can never match.
+     */
+    private static String expectedETag(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.contains(",")) {
+            throw new BadRequestException("If-Match must name a single entity tag");
+        }
+        if (tag.startsWith("W/")) {
+            throw new PreconditionFailedException("If-Match does not accept weak entity tags");
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new BadRequestException("If-Match must be a quoted entity tag");
+        }
+        return tag.substring(1, tag.length() - 1);
+    }
+
+    /**
+     * Sparse fieldsets are a V2 feature; V1 answers with whole books whatever is asked.
+     */
+    private static BookFields fields(String version, String fields) {
+        return "v1".equals(version) ? BookFields.ALL : BookFields.parse(fields);
+    }
+}
@@ -0,0 +1,146 @@
+package com.library.controller;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.library.entity.Book;
+import com.library.entity.BookPatch;
+import com.library.entity.BookQuery;
+import com.library.entity.CursorPage;
+import com.library.service.ReactiveBookService;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The book API on WebFlux, active when the application runs as a reactive web application
+ * (the {@code reactive} profile). Paths and book payloads follow {@link BookController}, with
+ * these differences:
+ * <ul>
+ * <li>No sparse fieldsets: {@code ?fields} is ignored on v2 as on v1.</li>
+ * <li>No ETags: reads never answer 304, and {@code If-None-Match} and {@code If-Match} are
+ * ignored, so every PUT and PATCH is unconditional.</li>
+ * <li>No {@code /facets} and no bulk import or bulk update endpoints.</li>
+ * <li>Checkout and return are served under {@code /api/v1} as well as {@code /api/v2}.</li>
+ * </ul>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping({ "/api/v1/books", "/api/v2/books" })
+public class ReactiveBookController {
+
+    private final ReactiveBookService reactiveBookService;
+
+    public ReactiveBookController(ReactiveBookService reactiveBookService) {
+        this.reactiveBookService = reactiveBookService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Book>> createBook(@Valid @RequestBody Book book) {
+        return reactiveBookService.createBook(book).map(saved -> new ResponseEntity<>(saved, HttpStatus.CREATED));
+    }
+
+    /**
+     * The whole catalog as a JSON array, written element by element as rows arrive.
+     */
+    @GetMapping
+    public Flux<Book> getAllBooks() {
+        return reactiveBookService.getBooks();
+    }
+
+    @GetMapping("/page")
+    public Mono<CursorPage<Book>> getBooksPage(@RequestParam(required = false) String after,
+                                               @RequestParam(defaultValue = "50") int size) {
+        return reactiveBookService.getBooksPage(after, size);
+    }
+
+    /**
+     * The whole catalog as newline-delimited JSON. Rows are read from the database only as
+     * fast as the client consumes them.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Book> streamBooks() {
+        return reactiveBookService.getBooks();
+    }
+
+    @GetMapping("/{isbn}")
+    public Mono<Book> getBookByISBN(@PathVariable String isbn) {
+        return reactiveBookService.getBookByISBN(isbn);
+    }
+
+    @PutMapping("/{isbn}")
+    public Mono<Book> updateBook(@PathVariable String isbn, @Valid @RequestBody Book book) {
+        return reactiveBookService.updateBook(isbn, book);
+    }
+
+    @PatchMapping("/{isbn}")
+    public Mono<Book> updateBookPartial(@PathVariable String isbn, @Valid @RequestBody BookPatch bookPatch) {
+        return reactiveBookService.updateBookPartial(isbn, bookPatch);
+    }
+
+    @PostMapping("/{isbn}/checkout")
+    public Mono<ResponseEntity<Void>> checkoutBook(@PathVariable String isbn) {
+        return reactiveBookService.checkoutBook(isbn).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @PostMapping("/{isbn}/return")
+    public Mono<ResponseEntity<Void>> returnBook(@PathVariable String isbn) {
+        return reactiveBookService.returnBook(isbn).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @DeleteMapping("/{isbn}")
+    public Mono<ResponseEntity<Void>> deleteBook(@PathVariable String isbn) {
+        return reactiveBookService.deleteBook(isbn).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @GetMapping("/isbn-range")
+    public Flux<Book> getBooksByIsbnRange(@RequestParam String startIsbn, @RequestParam String endIsbn) {
+        return reactiveBookService.getBooksByIsbnRange(startIsbn, endIsbn);
+    }
+
+    @GetMapping("/sorted/{year}/desc")
+    public Flux<Book> getAllBooksSortedByDesc(@PathVariable String year) {
+        return reactiveBookService.getAllBooksSortedByDesc(year);
+    }
+
+    @GetMapping("/query")
+    public Mono<CursorPage<Book>> queryBooks(BookQuery query) {
+        return reactiveBookService.queryBooks(query);
+    }
+
+    @GetMapping("/top3/newest")
+    public Mono<List<Book>> getTop3NewBooks() {
+        return reactiveBookService.getNewestBooks(3);
+    }
+
+    @GetMapping("/newest")
+    public Mono<List<Book>> getNewestBooks(@RequestParam(defaultValue = "3") int limit) {
+        return reactiveBookService.getNewestBooks(limit);
+    }
+
+    @GetMapping("/top10/search")
+    public Mono<List<Book>> getTop10ByTitle(@RequestParam String title) {
+        return reactiveBookService.getTop10ByTitle(title);
+    }
+
+    @GetMapping("/search")
+    public Mono<List<Book>> searchBooks(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return reactiveBookService.searchBooks(q, limit);
+    }
+
+}
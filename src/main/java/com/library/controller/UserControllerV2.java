@@ -1,29 +1,70 @@
 package com.library.controller;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.library.entity.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.entity.CursorPage;
+import com.library.entity.UserSummary;
 import com.library.service.UserDetailsServiceImpl;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v2/users")
 public class UserControllerV2 {
 
     private final UserDetailsServiceImpl userDetailsServiceImpl;
 
-    public UserControllerV2(UserDetailsServiceImpl userDetailsServiceImpl) {
+    private final ObjectMapper objectMapper;
+
+    public UserControllerV2(UserDetailsServiceImpl userDetailsServiceImpl, ObjectMapper objectMapper) {
         this.userDetailsServiceImpl = userDetailsServiceImpl;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * One page of users (id, username and email only), in id order. Pass the returned
+     * {@code nextCursor} back as {@code after} for the next page.
+     */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        // Implementation to retrieve all users
-        return ResponseEntity.ok().body(userDetailsServiceImpl.getAllUsers());
+    public ResponseEntity<CursorPage<UserSummary>> getUsers(@RequestParam(required = false) Long after,
+                                                            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok().body(userDetailsServiceImpl.getUsersPage(after, size));
+    }
+
+    /**
+     * Every user as newline-delimited JSON, one summary per line, written as rows arrive from
+     * the database. Admins only.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+            userDetailsServiceImpl.forEachUser(user -> {
+                try {
+                    writer.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().body(body);
     }
 
 }
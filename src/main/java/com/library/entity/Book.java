@@ -1,14 +1,15 @@
 package com.library.entity;
 
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
-import lombok.AllArgsConstructor;
-
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
 public class Book {
 
@@ -38,4 +39,46 @@ public class Book {
     @Column(name = "copies")
     private int copiesAvailable;
 
+    /**
+     * Optimistic-lock version, incremented by every update; an update that loaded an older
+     * version fails instead of overwriting. Null until the book is first saved. Not part of the
+     * JSON body; clients see it through the ETag.
+     */
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @JsonIgnore
+    @Column(name = "last_modified")
+    private Instant lastModified;
+
+    public Book(String isbn, String title, String author, int publicationYear, Genre genre, int copiesAvailable) {
+        this.isbn = isbn;
+        this.title = title;
+        this.author = author;
+        this.publicationYear = publicationYear;
+        this.genre = genre;
+        this.copiesAvailable = copiesAvailable;
+    }
+
+    @PrePersist
+    void created() {
+        lastModified = Instant.now();
+    }
+
+    @PreUpdate
+    void updated() {
+        lastModified = Instant.now();
+    }
+
+    /**
+     * Returns a detached copy, used wherever a book outlives the persistence context that loaded it.
+     */
+    public Book copy() {
+        Book copy = new Book(isbn, title, author, publicationYear, genre, copiesAvailable);
+        copy.version = version;
+        copy.lastModified = lastModified;
+        return copy;
+    }
+
 }
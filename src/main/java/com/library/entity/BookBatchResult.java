@@ -0,0 +1,32 @@
+package com.library.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-item outcome of a batch update. {@code status} uses HTTP status codes: 200 with the
+ * updated book, or 400/404 with an error message for items that were skipped.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBatchResult {
+
+    private String isbn;
+
+    private int status;
+
+    private Book book;
+
+    private String error;
+
+    public static BookBatchResult updated(Book book) {
+        return new BookBatchResult(book.getIsbn(), 200, book, null);
+    }
+
+    public static BookBatchResult failed(String isbn, int status, String error) {
+        return new BookBatchResult(isbn, status, null, error);
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.library.entity;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Catalog-wide counts for faceted navigation. {@code genres} is keyed by genre name in
+ * declaration order, with {@code NONE} for books without a genre. {@code decades} maps the
+ * first year of each decade from 1800 to its number of books.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFacets {
+
+    private long totalBooks;
+
+    private long totalCopies;
+
+    private Map<String, Long> genres;
+
+    private Map<Integer, Long> decades;
+
+}
@@ -0,0 +1,52 @@
+package com.library.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk import. Rows are numbered from 1 in input order, not counting a CSV header.
+ * Only the first {@link #MAX_REPORTED_ERRORS} errors are listed; {@code failed} counts them all.
+ */
+@Data
+@NoArgsConstructor
+public class BookImportReport {
+
+    public static final int MAX_REPORTED_ERRORS = 10_000;
+
+    private long received;
+
+    private long imported;
+
+    private long failed;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    public void reject(long row, String isbn, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, isbn, message));
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        private long row;
+
+        private String isbn;
+
+        private String message;
+
+    }
+
+}
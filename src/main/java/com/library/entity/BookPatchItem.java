@@ -0,0 +1,19 @@
+package com.library.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a batch PATCH: the book to change and the fields to change on it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookPatchItem {
+
+    private String isbn;
+
+    private BookPatch patch;
+
+}
@@ -0,0 +1,29 @@
+package com.library.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filters, sort order and page position for {@code GET /books/query}. Every filter is
+ * optional. {@code sort} is a comma-separated list of fields (isbn, year, title, author,
+ * genre, copies), each optionally prefixed with {@code -} for descending order.
+ */
+@Data
+@NoArgsConstructor
+public class BookQuery {
+
+    private Genre genre;
+
+    private Integer yearFrom;
+
+    private Integer yearTo;
+
+    private String author;
+
+    private String sort;
+
+    private String cursor;
+
+    private int size = 20;
+
+}
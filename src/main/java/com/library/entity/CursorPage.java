@@ -0,0 +1,22 @@
+package com.library.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is the key to pass back
+ * as {@code after} to fetch the following page, or null when this is the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+
+    private String nextCursor;
+
+}
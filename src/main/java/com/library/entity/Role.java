@@ -0,0 +1,49 @@
+package com.library.entity;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * What a user may do. A user's roles are stored as a bitmask of {@link #bit()}s, so a bit
+ * must never be reused or moved once assigned.
+ */
+public enum Role {
+    USER(1),
+    ADMIN(2);
+
+    private final int bit;
+
+    Role(int bit) {
+        this.bit = bit;
+    }
+
+    public int bit() {
+        return bit;
+    }
+
+    /**
+     * The Spring Security authority name, e.g. {@code ROLE_ADMIN}.
+     */
+    public String authority() {
+        return "ROLE_" + name();
+    }
+
+    public static int mask(Collection<Role> roles) {
+        int mask = 0;
+        for (Role role : roles) {
+            mask |= role.bit;
+        }
+        return mask;
+    }
+
+    public static Set<Role> fromMask(int mask) {
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (Role role : values()) {
+            if ((mask & role.bit) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+}
@@ -0,0 +1,21 @@
+package com.library.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A signed bearer token and how many seconds it stays valid.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenResponse {
+
+    private String token;
+
+    private String tokenType;
+
+    private long expiresIn;
+
+}
@@ -1,7 +1,12 @@
 package com.library.entity;
 
-import java.util.List;
+import java.util.Collection;
+import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -31,6 +36,22 @@ public class User {
     @Email(message = "Email should be valid")
     private String email;
 
-    private List<String> roles;
+    /**
+     * The user's {@link Role}s as a bitmask. One integer column read with the rest of the row,
+     * so loading a user never needs a join or a second query for its roles.
+     */
+    @JsonIgnore
+    @Column(name = "role_mask")
+    private int roleMask;
+
+    @JsonProperty("roles")
+    public Set<Role> getRoles() {
+        return Role.fromMask(roleMask);
+    }
+
+    @JsonProperty("roles")
+    public void setRoles(Collection<Role> roles) {
+        this.roleMask = Role.mask(roles);
+    }
 
 }
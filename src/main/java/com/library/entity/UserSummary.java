@@ -0,0 +1,22 @@
+package com.library.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The listable fields of a {@link User}, read by projection queries without loading the
+ * entity. Never carries the password hash.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+
+    private Long id;
+
+    private String username;
+
+    private String email;
+
+}
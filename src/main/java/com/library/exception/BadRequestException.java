@@ -0,0 +1,11 @@
+package com.library.exception;
+
+/**
+ * A request parameter or body the client got wrong, such as a page size out of range or a
+ * cursor that does not decode. Answered with 400.
+ */
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
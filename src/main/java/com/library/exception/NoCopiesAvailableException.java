@@ -0,0 +1,7 @@
+package com.library.exception;
+
+public class NoCopiesAvailableException extends RuntimeException {
+    public NoCopiesAvailableException(String message) {
+        super(message);
+    }
+}
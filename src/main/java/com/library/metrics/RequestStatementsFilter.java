@@ -0,0 +1,69 @@
+package com.library.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records how many JDBC statements a sample of requests issued, as
+ * {@code library.sql.statements.per.request} tagged like {@code http.server.requests}. Runs
+ * ahead of the security filters so statements issued to authenticate the caller are included.
+ * Work handed to another thread, such as a {@code StreamingResponseBody}, is not. Nothing is
+ * recorded without a {@link MeterRegistry}, as in a {@code @WebMvcTest} slice.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "library.sql.count-statements", havingValue = "true", matchIfMissing = true)
+public class RequestStatementsFilter extends OncePerRequestFilter {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    private final double sampleRate;
+
+    public RequestStatementsFilter(ObjectProvider<MeterRegistry> registry,
+                                   @Value("${library.sql.request-sample-rate:1.0}") double sampleRate) {
+        this.registry = registry;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        StatementCounts counts = StatementCounts.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            counts.close();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("library.sql.statements.per.request")
+                    .description("SQL statements issued while handling one request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .register(meterRegistry)
+                    .record(counts.total());
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.library.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sees every SQL statement Hibernate prepares. Counts them by kind and logs a sample of them.
+ *
+ * <p>The sampled statements go to the {@code com.library.sql} logger at DEBUG, which is
+ * written through an async appender, so unlike {@code spring.jpa.show-sql} a request never
+ * waits on stdout. Statements issued outside Hibernate, such as by {@code JdbcTemplate}, are
+ * not seen.
+ */
+@Component
+public class SqlStatementMetrics implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final Logger sqlLog = LoggerFactory.getLogger("com.library.sql");
+
+    private final Counter selects;
+    private final Counter inserts;
+    private final Counter updates;
+    private final Counter deletes;
+    private final Counter others;
+
+    private final double logSampleRate;
+
+    public SqlStatementMetrics(MeterRegistry registry,
+                               @Value("${library.sql.log-sample-rate:0.01}") double logSampleRate) {
+        this.selects = counter(registry, "select");
+        this.inserts = counter(registry, "insert");
+        this.updates = counter(registry, "update");
+        this.deletes = counter(registry, "delete");
+        this.others = counter(registry, "other");
+        this.logSampleRate = logSampleRate;
+    }
+
+    private static Counter counter(MeterRegistry registry, String kind) {
+        return Counter.builder("library.sql.statements")
+                .description("SQL statements prepared by Hibernate")
+                .tag("kind", kind)
+                .register(registry);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        kind(sql).increment();
+        if (sqlLog.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+            sqlLog.debug(sql);
+        }
+        return sql;
+    }
+
+    private Counter kind(String sql) {
+        int i = 0;
+        while (i < sql.length() && (Character.isWhitespace(sql.charAt(i)) || sql.charAt(i) == '(')) {
+            i++;
+        }
+        if (sql.regionMatches(true, i, "select", 0, 6) || sql.regionMatches(true, i, "with", 0, 4)) {
+            return selects;
+        }
+        if (sql.regionMatches(true, i, "insert", 0, 6)) {
+            return inserts;
+        }
+        if (sql.regionMatches(true, i, "update", 0, 6)) {
+            return updates;
+        }
+        if (sql.regionMatches(true, i, "delete", 0, 6)) {
+            return deletes;
+        }
+        return others;
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.library.metrics;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts a {@link StatementCountingDataSource} in front of the application's data source.
+ * Turn it off with {@code library.sql.count-statements=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "library.sql.count-statements", havingValue = "true", matchIfMissing = true)
+public class StatementCountingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+            return new StatementCountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.library.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The JDBC statements executed while a scope is open, as seen by
+ * {@link StatementCountingDataSource}. A batch counts once, since it is one round trip however
+ * many rows it carries.
+ *
+ * <p>A scope from {@link #start()} sees its own thread, including any scope nested inside it.
+ * One from {@link #startAllThreads()} sees every thread, for work handed to another thread such
+ * as a streamed response; it is meant for tests, where nothing else is running.
+ */
+public final class StatementCounts implements AutoCloseable {
+
+    private static final ThreadLocal<StatementCounts> current = new ThreadLocal<>();
+
+    private static final List<StatementCounts> allThreads = new CopyOnWriteArrayList<>();
+
+    private final StatementCounts parent;
+
+    private final boolean shared;
+
+    private final Queue<String> statements = new ConcurrentLinkedQueue<>();
+
+    private boolean closed;
+
+    private StatementCounts(StatementCounts parent, boolean shared) {
+        this.parent = parent;
+        this.shared = shared;
+    }
+
+    /**
+     * Starts counting the statements of the current thread. Close it on the same thread.
+     */
+    public static StatementCounts start() {
+        StatementCounts counts = new StatementCounts(current.get(), false);
+        current.set(counts);
+        return counts;
+    }
+
+    /**
+     * Starts counting the statements of every thread.
+     */
+    public static StatementCounts startAllThreads() {
+        StatementCounts counts = new StatementCounts(null, true);
+        allThreads.add(counts);
+        return counts;
+    }
+
+    static void record(String sql) {
+        for (StatementCounts counts = current.get(); counts != null; counts = counts.parent) {
+            counts.statements.add(sql);
+        }
+        if (!allThreads.isEmpty()) {
+            for (StatementCounts counts : allThreads) {
+                counts.statements.add(sql);
+            }
+        }
+    }
+
+    public int total() {
+        return statements.size();
+    }
+
+    /**
+     * The SQL of each counted statement, in execution order. Batches appear once.
+     */
+    public List<String> statements() {
+        return new ArrayList<>(statements);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (shared) {
+            allThreads.remove(this);
+        } else if (parent == null) {
+            current.remove();
+        } else {
+            current.set(parent);
+        }
+    }
+
+}
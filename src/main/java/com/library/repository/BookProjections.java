@@ -0,0 +1,24 @@
+package com.library.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.library.entity.Book;
+
+/**
+ * Column-level projections of {@link Book}, for listings that only need some properties.
+ */
+public interface BookProjections {
+
+    /**
+     * Books matching {@code spec} in {@code sort} order, reading only the columns of
+     * {@code properties}. The returned books are detached and every other property is left
+     * at its default.
+     */
+    List<Book> findProjected(Specification<Book> spec, Sort sort, Limit limit, Collection<String> properties);
+
+}
@@ -0,0 +1,70 @@
+package com.library.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import com.library.entity.Book;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Runs {@link BookProjections} queries as criteria tuple queries, so the SQL select list
+ * holds only the requested columns.
+ */
+class BookProjectionsImpl implements BookProjections {
+
+    private final EntityManager entityManager;
+
+    BookProjectionsImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Book> findProjected(Specification<Book> spec, Sort sort, Limit limit, Collection<String> properties) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        List<Selection<?>> selections = new ArrayList<>(properties.size());
+        for (String property : properties) {
+            selections.add(root.get(property).alias(property));
+        }
+        query.multiselect(selections);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+        }
+        List<Tuple> rows = typedQuery.getResultList();
+        List<Book> books = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Book book = new Book();
+            BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(book);
+            for (String property : properties) {
+                wrapper.setPropertyValue(property, row.get(property));
+            }
+            books.add(book);
+        }
+        return books;
+    }
+
+}
@@ -1,26 +1,107 @@
 package com.library.repository;
 
 import com.library.entity.Book;
+import com.library.entity.Genre;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, String> {
+public interface BookRepository extends JpaRepository<Book, String>, JpaSpecificationExecutor<Book>, BookProjections {
     List<Book> findByIsbnBetweenOrderByIsbnAsc(String startIsbn, String endIsbn);
 
-    List<Book> findAllByOrderByPublicationYearDesc();
+    List<Book> findAllByOrderByIsbnAsc(Limit limit);
 
-    List<Book> findAllByOrderByTitleDesc();
+    List<Book> findByIsbnGreaterThanOrderByIsbnAsc(String afterIsbn, Limit limit);
 
-    List<Book> findAllByOrderByAuthorDesc();
+    /**
+     * Streams the whole catalog in ISBN order. Must be consumed inside a transaction and
+     * closed afterwards; rows are fetched from the driver in chunks of the fetch size.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Book b order by b.isbn")
+    Stream<Book> streamAllByOrderByIsbnAsc();
 
-    List<Book> findAllByOrderByGenreDesc();
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
 
-    List<Book> findAllByOrderByCopiesAvailableDesc();
+    /**
+     * Atomically removes {@code count} copies if at least that many are available.
+     * Returns the number of rows updated: 0 if the book is missing or has too few copies.
+     * Bumps the version like any other write, since bulk updates skip the entity callbacks.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.copiesAvailable = b.copiesAvailable - :count, "
+            + "b.version = b.version + 1, b.lastModified = instant "
+            + "where b.isbn = :isbn and b.copiesAvailable >= :count")
+    int takeCopies(@Param("isbn") String isbn, @Param("count") int count);
 
-	List<Book> findTop3ByOrderByPublicationYearDesc();
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.copiesAvailable = b.copiesAvailable + :count, "
+            + "b.version = b.version + 1, b.lastModified = instant where b.isbn = :isbn")
+    int returnCopies(@Param("isbn") String isbn, @Param("count") int count);
 
-    List<Book> findTop10ByTitleContainingOrderByTitleAsc(String keyword);
+    List<Book> findAllByOrderByPublicationYearDescIsbnAsc(Limit limit);
+
+    /**
+     * Streams the books whose title contains {@code text}, ignoring case, in title order. The
+     * LIKE cannot seek, but walking the title index returns rows already in order, so a caller
+     * that stops early reads no further than it needs. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "50"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Book> streamByTitleContainingIgnoreCaseOrderByTitleAscIsbnAsc(String text);
+
+    /**
+     * Book and copy counts for every (genre, publication year) pair, in one pass over the table.
+     */
+    @Query("select b.genre as genre, b.publicationYear as publicationYear, count(b) as books, "
+            + "sum(b.copiesAvailable) as copies from Book b group by b.genre, b.publicationYear")
+    List<GenreYearCount> countByGenreAndYear();
+
+    /**
+     * Book count, sum of versions and latest modification time over the whole catalog. Any
+     * write changes at least one of them, so a copy of the catalog kept elsewhere can be
+     * checked against it in one query.
+     */
+    @Query("select count(b) as books, coalesce(sum(b.version), 0) as versions, "
+            + "max(b.lastModified) as lastModified from Book b")
+    CatalogFingerprint fingerprint();
+
+    interface GenreYearCount {
+
+        Genre getGenre();
+
+        Integer getPublicationYear();
+
+        Long getBooks();
+
+        Long getCopies();
+    }
+
+    interface CatalogFingerprint {
+
+        Long getBooks();
+
+        Long getVersions();
+
+        Instant getLastModified();
+    }
 }
@@ -0,0 +1,124 @@
+package com.library.repository;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.library.entity.Book;
+import com.library.entity.Genre;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking reads of the {@code book} table for the WebFlux stack.
+ *
+ * <p>Connects over R2DBC to the same H2 database as {@code spring.datasource.url}, so it sees
+ * the schema Flyway created and every write made through JPA. The pool is built here rather
+ * than exposed as a {@code ConnectionFactory} bean, so that Flyway and JPA keep using the JDBC
+ * data source.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookRepository {
+
+    private static final String COLUMNS = "isbn, title, author, publication_year, genre, copies";
+
+    private static final Map<String, String> COLUMNS_BY_PROPERTY = Map.of(
+            "isbn", "isbn",
+            "title", "title",
+            "author", "author",
+            "publicationYear", "publication_year",
+            "genre", "genre",
+            "copiesAvailable", "copies");
+
+    private final ConnectionPool connectionPool;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveBookRepository(@Value("${spring.datasource.url}") String jdbcUrl,
+                                  @Value("${spring.datasource.username:sa}") String username,
+                                  @Value("${spring.datasource.password:}") String password,
+                                  @Value("${library.reactive.pool-size:20}") int poolSize) {
+        if (!jdbcUrl.startsWith("jdbc:h2:")) {
+            throw new IllegalStateException("The reactive profile only supports H2, found " + jdbcUrl);
+        }
+        H2ConnectionFactory connectionFactory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url(jdbcUrl.substring("jdbc:h2:".length()))
+                .username(username)
+                .password(password)
+                .build());
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .maxSize(poolSize)
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    /**
+     * The whole catalog in {@code sort} order. Rows are emitted as the subscriber requests
+     * them, so a slow client slows the read instead of buffering the table.
+     */
+    public Flux<Book> findAll(Sort sort) {
+        return databaseClient.sql("select " + COLUMNS + " from book order by " + orderBy(sort))
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    public Flux<Book> findByIsbnBetweenOrderByIsbnAsc(String startIsbn, String endIsbn) {
+        return databaseClient.sql("select " + COLUMNS + " from book where isbn between :start and :end order by isbn")
+                .bind("start", startIsbn)
+                .bind("end", endIsbn)
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    public Flux<Book> findByIsbnGreaterThanOrderByIsbnAsc(String afterIsbn, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from book where isbn > :after order by isbn "
+                        + "fetch first :limit rows only")
+                .bind("after", afterIsbn)
+                .bind("limit", limit)
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    private static String orderBy(Sort sort) {
+        StringBuilder clause = new StringBuilder();
+        for (Sort.Order order : sort) {
+            String column = COLUMNS_BY_PROPERTY.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Invalid sort parameter: " + order.getProperty());
+            }
+            if (!clause.isEmpty()) {
+                clause.append(", ");
+            }
+            clause.append(column).append(order.isAscending() ? " asc" : " desc");
+        }
+        return clause.isEmpty() ? "isbn" : clause.toString();
+    }
+
+    private static Book toBook(Readable row) {
+        String genre = row.get("genre", String.class);
+        return new Book(
+                row.get("isbn", String.class),
+                row.get("title", String.class),
+                row.get("author", String.class),
+                row.get("publication_year", Integer.class),
+                genre == null ? null : Genre.valueOf(genre),
+                row.get("copies", Integer.class));
+    }
+
+}
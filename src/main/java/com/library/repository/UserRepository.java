@@ -1,15 +1,48 @@
 package com.library.repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.library.entity.User;
+import com.library.entity.UserSummary;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
     public Optional<User> findByUsername(String username);
 
+    /**
+     * The first {@code limit} users in id order, with no lower bound on the id. Selects only the
+     * summary columns.
+     */
+    @Query("select new com.library.entity.UserSummary(u.id, u.username, u.email) from User u order by u.id")
+    List<UserSummary> findSummaries(Limit limit);
+
+    /**
+     * Up to {@code limit} users with an id above {@code afterId}, in id order. Seeks on the
+     * primary key and selects only the summary columns.
+     */
+    @Query("select new com.library.entity.UserSummary(u.id, u.username, u.email) from User u "
+            + "where u.id > :afterId order by u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Every user's summary in id order, fetched from the driver in chunks. Must be consumed
+     * inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.library.entity.UserSummary(u.id, u.username, u.email) from User u order by u.id")
+    Stream<UserSummary> streamSummaries();
+
 }
@@ -0,0 +1,126 @@
+package com.library.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Remembers successful username/password verifications for a short time so repeat HTTP Basic
+ * requests skip the user lookup and BCrypt check. Entries are keyed by an HMAC-SHA256 of the
+ * credentials under a random key generated at startup. The password is never stored, and
+ * keys cannot be checked against guesses outside this process.
+ *
+ * <p>Each username has a generation that {@link #invalidate} bumps. A verification that was
+ * already running when the password changed passes the generation it started with to
+ * {@link #put}, which then does not keep the result.
+ */
+@Component
+public class AuthenticationCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, Authentication> cache;
+
+    private final SecretKeySpec key;
+
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Initialized once and cloned per call: a Mac is not thread-safe, and a thread-local copy
+     * would be created for every virtual thread and never reused.
+     */
+    private final Mac prototype;
+
+    public AuthenticationCache(MeterRegistry meterRegistry,
+                               @Value("${library.auth.cache.maximum-size:10000}") long maximumSize,
+                               @Value("${library.auth.cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authentications");
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.prototype = newMac();
+    }
+
+    public String key(String username, String password) {
+        Mac mac = mac();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public Authentication get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * The current generation of {@code username}, to read before verifying its credentials.
+     */
+    public long generation(String username) {
+        return generations.getOrDefault(username, 0L);
+    }
+
+    /**
+     * Caches a verification that started at {@code generation}, unless the user has been
+     * invalidated since. Checked after the put as well, as the two can interleave.
+     */
+    public void put(String key, Authentication authentication, long generation) {
+        if (generation(authentication.getName()) != generation) {
+            return;
+        }
+        cache.put(key, authentication);
+        if (generation(authentication.getName()) != generation) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Forgets every cached verification for {@code username}, e.g. after a password change,
+     * and any that is still in progress.
+     */
+    public void invalidate(String username) {
+        generations.merge(username, 1L, Long::sum);
+        cache.asMap().values().removeIf(authentication -> username.equals(authentication.getName()));
+    }
+
+    private Mac mac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return newMac();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+}
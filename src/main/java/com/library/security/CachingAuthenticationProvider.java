@@ -0,0 +1,71 @@
+package com.library.security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Puts an {@link AuthenticationCache} in front of another provider. Only successful
+ * verifications are cached, so wrong passwords always go through the full check.
+ *
+ * <p>{@code library.auth.verification} times the delegate on each miss.
+ * {@code library.auth.cache.saved} adds up the mean verification time once per hit,
+ * as an estimate of the CPU time the cache has saved.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+
+    private final AuthenticationCache cache;
+
+    private final Timer verificationTimer;
+
+    private final Counter savedSeconds;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, AuthenticationCache cache,
+                                         MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.verificationTimer = Timer.builder("library.auth.verification")
+                .description("Time spent verifying credentials on authentication cache misses")
+                .register(meterRegistry);
+        this.savedSeconds = Counter.builder("library.auth.cache.saved")
+                .baseUnit("seconds")
+                .description("Estimated verification time avoided by authentication cache hits")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken)
+                || !(authentication.getCredentials() instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+        String key = cache.key(authentication.getName(), password);
+        Authentication cached = cache.get(key);
+        if (cached != null) {
+            savedSeconds.increment(verificationTimer.mean(TimeUnit.SECONDS));
+            return cached;
+        }
+        long generation = cache.generation(authentication.getName());
+        long start = System.nanoTime();
+        Authentication result = delegate.authenticate(authentication);
+        verificationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (result != null && result.isAuthenticated()) {
+            cache.put(key, result, generation);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+}
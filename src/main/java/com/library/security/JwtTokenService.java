@@ -0,0 +1,176 @@
+package com.library.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Issues and verifies compact HS256 JSON Web Tokens signed with {@code jwt.secret}.
+ *
+ * <p>The token carries the username ({@code sub}), the granted authorities ({@code roles}),
+ * and issue and expiry times in epoch seconds. Verification only recomputes the HMAC and
+ * parses the claims. It does not touch the database or the password encoder.
+ */
+@Service
+public class JwtTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenService.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * HS256 keys shorter than the 256-bit hash output weaken the signature (RFC 7518, 3.2).
+     */
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper;
+
+    private final Duration expiration;
+
+    private final SecretKeySpec key;
+
+    private final Mac prototype;
+
+    private final String encodedHeader;
+
+    public JwtTokenService(ObjectMapper objectMapper,
+                           @Value("${jwt.secret:}") String secret,
+                           @Value("${jwt.expiration:15m}") Duration expiration) {
+        this.objectMapper = objectMapper;
+        this.expiration = expiration;
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length > 0 && secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("jwt.secret must be at least " + MIN_SECRET_BYTES
+                    + " bytes for HS256, got " + secretBytes.length);
+        }
+        if (secretBytes.length == 0) {
+            log.warn("jwt.secret is not set; using a random key, tokens will not survive a restart");
+            secretBytes = new byte[32];
+            new SecureRandom().nextBytes(secretBytes);
+        }
+        this.key = new SecretKeySpec(secretBytes, HMAC_ALGORITHM);
+        this.prototype = newMac();
+        this.encodedHeader = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Duration getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * Signs a token for an already authenticated principal.
+     */
+    public String issue(Authentication authentication) {
+        Instant now = Instant.now();
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", authentication.getName());
+        claims.put("roles", roles);
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", now.plus(expiration).getEpochSecond());
+        try {
+            String signingInput = encodedHeader + "." + encode(objectMapper.writeValueAsBytes(claims));
+            return signingInput + "." + encode(sign(signingInput));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize token claims", e);
+        }
+    }
+
+    /**
+     * Checks the signature and expiry of {@code token} and rebuilds the authentication it
+     * was issued for.
+     *
+     * @throws BadCredentialsException if the token is malformed, tampered with or expired
+     */
+    public Authentication verify(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || firstDot == lastDot) {
+            throw new BadCredentialsException("Malformed token");
+        }
+        String signingInput = token.substring(0, lastDot);
+        if (!signingInput.substring(0, firstDot).equals(encodedHeader)) {
+            throw new BadCredentialsException("Unsupported token header");
+        }
+        try {
+            byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, sign(signingInput))) {
+                throw new BadCredentialsException("Invalid token signature");
+            }
+            JsonNode claims = objectMapper.readTree(DECODER.decode(token.substring(firstDot + 1, lastDot)));
+            if (claims.path("exp").asLong() <= Instant.now().getEpochSecond()) {
+                throw new BadCredentialsException("Token has expired");
+            }
+            String username = claims.path("sub").asText(null);
+            if (username == null) {
+                throw new BadCredentialsException("Token has no subject");
+            }
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            for (JsonNode role : claims.path("roles")) {
+                authorities.add(RoleAuthorities.authority(role.asText()));
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(username, null, authorities);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadCredentialsException("Malformed token", e);
+        }
+    }
+
+    private byte[] sign(String signingInput) {
+        return mac().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String encode(byte[] bytes) {
+        return ENCODER.encodeToString(bytes);
+    }
+
+    private Mac mac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return newMac();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.library.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManagerAdapter;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The WebFlux filter chain used under the {@code reactive} profile. Same rules as the servlet
+ * chain: stateless, HTTP Basic or bearer token, only the login endpoint open.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    /**
+     * The shared {@link AuthenticationManager}, run on the bounded elastic scheduler since the
+     * BCrypt check and the user lookup both block.
+     */
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(AuthenticationManager authenticationManager) {
+        ReactiveAuthenticationManagerAdapter adapter = new ReactiveAuthenticationManagerAdapter(authenticationManager);
+        adapter.setScheduler(Schedulers.boundedElastic());
+        return adapter;
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         ReactiveAuthenticationManager reactiveAuthenticationManager,
+                                                         JwtTokenService jwtTokenService) {
+        http
+            .csrf(csrf -> csrf.disable())
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .authorizeExchange(exchange -> exchange
+                .pathMatchers("/api/v1/auth/login").permitAll()
+                .anyExchange().authenticated()
+                )
+                .httpBasic(basic -> basic.authenticationManager(reactiveAuthenticationManager))
+                .addFilterAt(bearerTokenFilter(jwtTokenService), SecurityWebFiltersOrder.AUTHENTICATION);
+
+        return http.build();
+    }
+
+    /**
+     * Verifies {@code Authorization: Bearer <token>} from its signature alone. The converter
+     * does the verification, so the manager only has to pass the result through.
+     */
+    private static AuthenticationWebFilter bearerTokenFilter(JwtTokenService jwtTokenService) {
+        ServerAuthenticationConverter converter = exchange -> {
+            String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+                return Mono.empty();
+            }
+            return Mono.fromCallable(() -> jwtTokenService.verify(header.substring(BEARER_PREFIX.length()).trim()));
+        };
+        AuthenticationWebFilter filter = new AuthenticationWebFilter((ReactiveAuthenticationManager) Mono::just);
+        filter.setServerAuthenticationConverter(converter);
+        filter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        filter.setAuthenticationFailureHandler((webFilterExchange, e) -> {
+            webFilterExchange.getExchange().getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            webFilterExchange.getExchange().getResponse().getHeaders()
+                    .set(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            return webFilterExchange.getExchange().getResponse().setComplete();
+        });
+        return filter;
+    }
+
+}
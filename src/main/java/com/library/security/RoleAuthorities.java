@@ -0,0 +1,61 @@
+package com.library.security;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.library.entity.Role;
+
+/**
+ * Granted authorities for {@link Role}s, built once. Every combination of roles maps to one
+ * shared immutable list, so authenticating a user or verifying a token allocates no
+ * authority objects.
+ */
+public final class RoleAuthorities {
+
+    private static final Map<String, GrantedAuthority> BY_NAME = new HashMap<>();
+
+    private static final int ALL_ROLES;
+
+    private static final List<List<GrantedAuthority>> BY_MASK;
+
+    static {
+        int all = 0;
+        for (Role role : Role.values()) {
+            BY_NAME.put(role.authority(), new SimpleGrantedAuthority(role.authority()));
+            all |= role.bit();
+        }
+        ALL_ROLES = all;
+        BY_MASK = new ArrayList<>(all + 1);
+        for (int mask = 0; mask <= all; mask++) {
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            for (Role role : Role.fromMask(mask)) {
+                authorities.add(BY_NAME.get(role.authority()));
+            }
+            BY_MASK.add(List.copyOf(authorities));
+        }
+    }
+
+    private RoleAuthorities() {
+    }
+
+    /**
+     * The authorities of a role bitmask. Bits of no known role are ignored.
+     */
+    public static List<GrantedAuthority> of(int roleMask) {
+        return BY_MASK.get(roleMask & ALL_ROLES);
+    }
+
+    /**
+     * The shared instance for a role's authority name, or a new authority for any other name.
+     */
+    public static GrantedAuthority authority(String name) {
+        GrantedAuthority authority = BY_NAME.get(name);
+        return authority != null ? authority : new SimpleGrantedAuthority(name);
+    }
+
+}
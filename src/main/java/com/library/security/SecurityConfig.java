@@ -1,19 +1,28 @@
 package com.library.security;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Authentication beans shared by both web stacks, plus the servlet filter chain. The WebFlux
+ * chain used under the {@code reactive} profile is in {@link ReactiveSecurityConfig}.
+ */
 @Configuration
-@EnableWebSecurity
 public class SecurityConfig{
 
     @Bean
@@ -21,30 +30,55 @@ public class SecurityConfig{
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * The usual user lookup + BCrypt check, behind a short-lived cache of successful
+     * verifications so repeat HTTP Basic requests from the same client stay cheap.
+     */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
-
-        httpSecurity
-            .csrf(csrf -> csrf.disable())
-            .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/v1/hello", "/api/v1/hello/**").permitAll()
-                .requestMatchers("/api/v1/create-user","/api/v1/create-user/**").permitAll()
-                .requestMatchers("/api/v1/users","/api/v1/users/**").authenticated()
-                .requestMatchers("/api/v1/books/**").authenticated()
-                .anyRequest().authenticated()
-                )
-                // Use HTTP Basic for API clients (Postman) so the server responds with 401 + WWW-Authenticate
-                // instead of redirecting to an HTML login form.
-                .httpBasic(Customizer.withDefaults())
-                // Do not create sessions for API requests (stateless)
-                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
-
-                return httpSecurity.build();
+    public CachingAuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                                PasswordEncoder passwordEncoder,
+                                                                AuthenticationCache authenticationCache,
+                                                                MeterRegistry meterRegistry) {
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider(userDetailsService);
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+        return new CachingAuthenticationProvider(daoAuthenticationProvider, authenticationCache, meterRegistry);
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
+    public AuthenticationManager authenticationManager(CachingAuthenticationProvider authenticationProvider) {
+        return new ProviderManager(authenticationProvider);
+    }
+
+    @Configuration
+    @EnableWebSecurity
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletSecurityConfig {
+
+        @Bean
+        public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity, JwtTokenService jwtTokenService) throws Exception {
+
+            httpSecurity
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(auth -> auth
+                    .requestMatchers("/api/v1/hello", "/api/v1/hello/**").permitAll()
+                    .requestMatchers("/api/v1/create-user","/api/v1/create-user/**").permitAll()
+                    .requestMatchers("/api/v1/auth/login").permitAll()
+                    .requestMatchers("/api/v1/users","/api/v1/users/**").authenticated()
+                    .requestMatchers("/api/v2/users/export").hasRole("ADMIN")
+                    .requestMatchers("/api/v1/books/**").authenticated()
+                    .anyRequest().authenticated()
+                    )
+                    // Use HTTP Basic for API clients (Postman) so the server responds with 401 + WWW-Authenticate
+                    // instead of redirecting to an HTML login form.
+                    .httpBasic(Customizer.withDefaults())
+                    // Bearer tokens from /api/v1/auth/login are verified from their signature alone
+                    .addFilterBefore(new JwtAuthenticationFilter(jwtTokenService), BasicAuthenticationFilter.class)
+                    // Do not create sessions for API requests (stateless)
+                    .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+
+                    return httpSecurity.build();
+        }
+
     }
 
 }
@@ -0,0 +1,81 @@
+package com.library.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.library.entity.Book;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded read-through cache of books by ISBN. Caffeine's W-TinyLFU policy decides admission
+ * and eviction. Misses are cached as empty entries with a shorter TTL so repeated lookups of
+ * unknown ISBNs do not reach the database. Entries are replaced or dropped as writes commit.
+ * Hit, miss and eviction counts are published as the {@code books} cache metrics.
+ */
+@Component
+public class BookCache implements BookChangeListener {
+
+    private final Cache<String, Optional<Book>> cache;
+
+    public BookCache(MeterRegistry meterRegistry,
+                     @Value("${library.cache.books.maximum-size:100000}") long maximumSize,
+                     @Value("${library.cache.books.ttl:10m}") Duration ttl,
+                     @Value("${library.cache.books.negative-ttl:30s}") Duration negativeTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PresenceAwareExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "books");
+    }
+
+    public Optional<Book> get(String isbn, Function<String, Optional<Book>> loader) {
+        return cache.get(isbn, loader);
+    }
+
+    @Override
+    public void bookSaved(Book previous, Book current) {
+        cache.put(current.getIsbn(), Optional.of(current));
+    }
+
+    @Override
+    public void bookDeleted(Book previous) {
+        cache.invalidate(previous.getIsbn());
+    }
+
+    private static final class PresenceAwareExpiry implements Expiry<String, Optional<Book>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private PresenceAwareExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String isbn, Optional<Book> book, long currentTime) {
+            return book.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String isbn, Optional<Book> book, long currentTime, long currentDuration) {
+            return expireAfterCreate(isbn, book, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String isbn, Optional<Book> book, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+}
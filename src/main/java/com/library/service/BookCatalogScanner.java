@@ -0,0 +1,63 @@
+package com.library.service;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Full-catalog scans with flat memory use, for streaming responses and for seeding the
+ * in-memory read structures at startup.
+ */
+@Component
+public class BookCatalogScanner {
+
+    private final BookRepository bookRepository;
+
+    private final EntityManager entityManager;
+
+    public BookCatalogScanner(BookRepository bookRepository, EntityManager entityManager) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Feeds every book to {@code action} in ISBN order without materializing the catalog.
+     * Each entity is detached once consumed so the persistence context stays small.
+     */
+    @Transactional(readOnly = true)
+    public void forEachBook(Consumer<Book> action) {
+        try (Stream<Book> books = bookRepository.streamAllByOrderByIsbnAsc()) {
+            books.forEach(book -> {
+                action.accept(book);
+                entityManager.detach(book);
+            });
+        }
+    }
+
+    /**
+     * Feeds the books whose title contains {@code text}, ignoring case, to {@code action} in
+     * title and ISBN order, until it returns false.
+     */
+    @Transactional(readOnly = true)
+    public void forEachBookWithTitleContaining(String text, Predicate<Book> action) {
+        try (Stream<Book> books = bookRepository.streamByTitleContainingIgnoreCaseOrderByTitleAscIsbnAsc(text)) {
+            Iterator<Book> iterator = books.iterator();
+            boolean more = true;
+            while (more && iterator.hasNext()) {
+                Book book = iterator.next();
+                more = action.test(book);
+                entityManager.detach(book);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.library.service;
+
+import com.library.entity.Book;
+
+/**
+ * Receives every committed change to the catalog made through {@link BookService}, so that
+ * in-memory read structures can stay in step with the database without re-querying it.
+ * Books handed to listeners are detached copies and may be retained.
+ */
+public interface BookChangeListener {
+
+    /**
+     * @param previous the book as it was before the change, or null for a newly created book
+     * @param current the book as it was saved
+     */
+    void bookSaved(Book previous, Book current);
+
+    void bookDeleted(Book previous);
+
+}
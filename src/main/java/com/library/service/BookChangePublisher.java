@@ -0,0 +1,46 @@
+package com.library.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.library.entity.Book;
+
+/**
+ * Fans book changes out to every {@link BookChangeListener}. When called inside a transaction
+ * the notification is held back until the transaction commits, so listeners never observe
+ * writes that are later rolled back.
+ */
+@Component
+public class BookChangePublisher {
+
+    private final List<BookChangeListener> listeners;
+
+    public BookChangePublisher(List<BookChangeListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    public void bookSaved(Book previous, Book current) {
+        afterCommit(() -> listeners.forEach(listener -> listener.bookSaved(previous, current)));
+    }
+
+    public void bookDeleted(Book previous) {
+        afterCommit(() -> listeners.forEach(listener -> listener.bookDeleted(previous)));
+    }
+
+    private void afterCommit(Runnable notification) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            notification.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                notification.run();
+            }
+        });
+    }
+
+}
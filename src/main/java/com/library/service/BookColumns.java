@@ -0,0 +1,434 @@
+package com.library.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.library.entity.Book;
+import com.library.entity.Genre;
+
+/**
+ * Optional columnar snapshot of the catalog for ISBN range scans and sorted listings.
+ *
+ * <p>Rows are kept in ISBN order as parallel arrays: the ISBNs themselves, title and author
+ * as ids into one shared string dictionary, genre as a byte ordinal, year as a short and
+ * copies as an int (the column has no upper bound). A range is two binary searches and a
+ * sort is a primitive sort of packed {@code key << 32 | row} longs, where the key of a
+ * string is its rank in the sorted dictionary. Books are only built for the rows returned.
+ *
+ * <p>Writes go to a small ISBN-ordered map of pending changes, which range scans and sorts
+ * merge on the fly: a sort orders the arrays and the pending books separately and merges the
+ * two. The pending changes are merged into fresh arrays only once there are
+ * {@value #MERGE_THRESHOLD} of them, so a sort never pays for a rebuild and a rebuild under
+ * the write lock happens at most once per that many writes.
+ */
+@Component
+public class BookColumns implements BookChangeListener {
+
+    private static final int MERGE_THRESHOLD = 1024;
+
+    private static final Genre[] GENRES = Genre.values();
+
+    private static final byte NO_GENRE = -1;
+
+    /**
+     * Sort key of each genre ordinal, shifted by one so no genre is 0. The database stores
+     * genres by name, so they sort by name, and nulls sort lowest.
+     */
+    private static final int[] GENRE_KEYS = genreKeys();
+
+    private final BookCatalogScanner catalogScanner;
+
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Held while a seed scans the catalog, so only one runs at a time.
+     */
+    private final Lock seedLock = new ReentrantLock();
+
+    private Columns columns = new Columns(0);
+
+    /**
+     * Books saved since the last merge by ISBN, with null for a deleted book.
+     */
+    private final TreeMap<String, Book> pending = new TreeMap<>();
+
+    /**
+     * Writes committed while a seed scans the catalog, or null when none is.
+     */
+    private TreeMap<String, Book> changesDuringSeed;
+
+    private volatile boolean ready;
+
+    public BookColumns(BookCatalogScanner catalogScanner,
+                       @Value("${library.views.columnar.enabled:false}") boolean enabled) {
+        this.catalogScanner = catalogScanner;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Builds the columns from a catalog scan without holding the lock, so reads and writes
+     * carry on against the previous columns. Writes committed during the scan are recorded and
+     * become the pending changes of the new columns when they are swapped in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (!enabled) {
+            return;
+        }
+        seedLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                changesDuringSeed = new TreeMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Columns loaded = null;
+            try {
+                Columns scanned = new Columns(1024);
+                catalogScanner.forEachBook(scanned::add);
+                scanned.rankStrings();
+                loaded = scanned;
+            } finally {
+                swapIn(loaded);
+            }
+        } finally {
+            seedLock.unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Books with an ISBN between {@code startIsbn} and {@code endIsbn} inclusive, in ISBN order.
+     * The books carry no version or modification time.
+     */
+    public List<Book> isbnRange(String startIsbn, String endIsbn) {
+        if (startIsbn.compareTo(endIsbn) > 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            int from = current.lowerBound(startIsbn, false);
+            int to = current.lowerBound(endIsbn, true);
+            NavigableMap<String, Book> changed = pending.subMap(startIsbn, true, endIsbn, true);
+            List<Book> books = new ArrayList<>(to - from + changed.size());
+            PendingChanges.merge(from, to, current::compare, changed,
+                    row -> books.add(current.book(row)), book -> books.add(book.copy()));
+            return books;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every book in descending order of {@code key}, ISBN ascending among equal keys. The
+     * books carry no version or modification time.
+     */
+    public List<Book> sortedDescending(BookSort.Key key) {
+        lock.readLock().lock();
+        try {
+            Comparator<Book> comparator = descending(key);
+            BitSet replaced = new BitSet(columns.rows);
+            List<Book> changed = new ArrayList<>(pending.size());
+            for (Map.Entry<String, Book> change : pending.entrySet()) {
+                int row = columns.lowerBound(change.getKey(), false);
+                if (row < columns.rows && columns.isbns[row].equals(change.getKey())) {
+                    replaced.set(row);
+                }
+                if (change.getValue() != null) {
+                    changed.add(change.getValue().copy());
+                }
+            }
+            changed.sort(comparator);
+
+            int[] order = columns.sortedDescending(key, replaced);
+            List<Book> books = new ArrayList<>(order.length + changed.size());
+            int next = 0;
+            for (int row : order) {
+                Book book = columns.book(row);
+                while (next < changed.size() && comparator.compare(changed.get(next), book) < 0) {
+                    books.add(changed.get(next++));
+                }
+                books.add(book);
+            }
+            books.addAll(changed.subList(next, changed.size()));
+            return books;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bookSaved(Book previous, Book current) {
+        change(current.getIsbn(), current);
+    }
+
+    @Override
+    public void bookDeleted(Book previous) {
+        change(previous.getIsbn(), null);
+    }
+
+    private void change(String isbn, Book book) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (changesDuringSeed != null) {
+                changesDuringSeed.put(isbn, book);
+            }
+            pending.put(isbn, book);
+            if (pending.size() >= MERGE_THRESHOLD) {
+                mergePending();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Makes {@code loaded} the columns, with the writes recorded during the seed as its
+     * pending changes. With null, just stops recording.
+     */
+    private void swapIn(Columns loaded) {
+        lock.writeLock().lock();
+        try {
+            if (loaded != null) {
+                columns = loaded;
+                pending.clear();
+                pending.putAll(changesDuringSeed);
+                if (pending.size() >= MERGE_THRESHOLD) {
+                    mergePending();
+                }
+                ready = true;
+            }
+            changesDuringSeed = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the columns with the pending changes applied. The dictionary is rebuilt too,
+     * which drops strings no longer used by any row.
+     */
+    private void mergePending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Columns current = columns;
+        Columns merged = new Columns(current.rows + pending.size());
+        PendingChanges.merge(0, current.rows, current::compare, pending,
+                row -> merged.add(current, row), merged::add);
+        merged.rankStrings();
+        columns = merged;
+        pending.clear();
+    }
+
+    /**
+     * The order {@link Columns#sortedDescending} produces, for books outside the arrays.
+     */
+    private static Comparator<Book> descending(BookSort.Key key) {
+        Comparator<Book> byKey = switch (key) {
+            case ISBN -> Comparator.comparing(Book::getIsbn);
+            case YEAR -> Comparator.comparingInt(Book::getPublicationYear);
+            case TITLE -> Comparator.comparing(Book::getTitle);
+            case AUTHOR -> Comparator.comparing(Book::getAuthor);
+            case GENRE -> Comparator.comparingInt(
+                    (Book book) -> book.getGenre() == null ? 0 : GENRE_KEYS[book.getGenre().ordinal()]);
+            case COPIES -> Comparator.comparingInt(Book::getCopiesAvailable);
+        };
+        return byKey.reversed().thenComparing(Book::getIsbn);
+    }
+
+    private static int[] genreKeys() {
+        Genre[] byName = GENRES.clone();
+        Arrays.sort(byName, (a, b) -> a.name().compareTo(b.name()));
+        int[] keys = new int[GENRES.length];
+        for (int i = 0; i < byName.length; i++) {
+            keys[byName[i].ordinal()] = i + 1;
+        }
+        return keys;
+    }
+
+    /**
+     * The rows, in ISBN order, as growable parallel arrays.
+     */
+    private static final class Columns {
+
+        /**
+         * String ids while rows are being added. Dropped by {@link #rankStrings}, after which
+         * the columns are read-only.
+         */
+        private Map<String, Integer> ids = new HashMap<>();
+        private String[] strings;
+        private int stringCount;
+        private int[] stringRanks = new int[0];
+
+        private String[] isbns;
+        private int[] titles;
+        private int[] authors;
+        private byte[] genres;
+        private short[] years;
+        private int[] copies;
+        private int rows;
+
+        private Columns(int capacity) {
+            int initial = Math.max(capacity, 16);
+            strings = new String[initial];
+            isbns = new String[initial];
+            titles = new int[initial];
+            authors = new int[initial];
+            genres = new byte[initial];
+            years = new short[initial];
+            copies = new int[initial];
+        }
+
+        private void add(Book book) {
+            append(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getGenre(),
+                    book.getPublicationYear(), book.getCopiesAvailable());
+        }
+
+        private void add(Columns source, int row) {
+            byte genre = source.genres[row];
+            append(source.isbns[row], source.strings[source.titles[row]], source.strings[source.authors[row]],
+                    genre == NO_GENRE ? null : GENRES[genre], source.years[row], source.copies[row]);
+        }
+
+        private void append(String isbn, String title, String author, Genre genre, int year, int copyCount) {
+            if (rows == isbns.length) {
+                int capacity = rows + (rows >> 1) + 1;
+                isbns = Arrays.copyOf(isbns, capacity);
+                titles = Arrays.copyOf(titles, capacity);
+                authors = Arrays.copyOf(authors, capacity);
+                genres = Arrays.copyOf(genres, capacity);
+                years = Arrays.copyOf(years, capacity);
+                copies = Arrays.copyOf(copies, capacity);
+            }
+            isbns[rows] = isbn;
+            titles[rows] = encode(title);
+            authors[rows] = encode(author);
+            genres[rows] = genre == null ? NO_GENRE : (byte) genre.ordinal();
+            years[rows] = (short) year;
+            copies[rows] = copyCount;
+            rows++;
+        }
+
+        private int encode(String value) {
+            Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            if (stringCount == strings.length) {
+                strings = Arrays.copyOf(strings, stringCount + (stringCount >> 1) + 1);
+            }
+            strings[stringCount] = value;
+            ids.put(value, stringCount);
+            return stringCount++;
+        }
+
+        /**
+         * Ranks every dictionary string by its sort order, so strings compare as ints.
+         */
+        private void rankStrings() {
+            String[] sorted = Arrays.copyOf(strings, stringCount);
+            Arrays.sort(sorted);
+            stringRanks = new int[stringCount];
+            for (int rank = 0; rank < sorted.length; rank++) {
+                stringRanks[ids.get(sorted[rank])] = rank;
+            }
+            ids = null;
+        }
+
+        private int compare(int row, String isbn) {
+            return isbns[row].compareTo(isbn);
+        }
+
+        /**
+         * The first row whose ISBN is not below {@code isbn}, or above it if {@code after}.
+         */
+        private int lowerBound(String isbn, boolean after) {
+            int low = 0;
+            int high = rows;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int order = isbns[mid].compareTo(isbn);
+                if (order < 0 || after && order == 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Rows not in {@code skipped}, in descending order of {@code key} and ISBN ascending
+         * among equal keys.
+         */
+        private int[] sortedDescending(BookSort.Key key, BitSet skipped) {
+            int[] order = new int[rows - skipped.cardinality()];
+            if (key == BookSort.Key.ISBN) {
+                int next = 0;
+                for (int row = rows - 1; row >= 0; row--) {
+                    if (!skipped.get(row)) {
+                        order[next++] = row;
+                    }
+                }
+                return order;
+            }
+            long[] packed = new long[order.length];
+            int next = 0;
+            for (int row = skipped.nextClearBit(0); row < rows; row = skipped.nextClearBit(row + 1)) {
+                packed[next++] = (long) (Integer.MAX_VALUE - sortKey(key, row)) << 32 | row;
+            }
+            Arrays.sort(packed);
+            for (int i = 0; i < packed.length; i++) {
+                order[i] = (int) packed[i];
+            }
+            return order;
+        }
+
+        /**
+         * A non-negative int that orders rows the way the database orders {@code key}.
+         */
+        private int sortKey(BookSort.Key key, int row) {
+            return switch (key) {
+                case YEAR -> years[row];
+                case TITLE -> stringRanks[titles[row]];
+                case AUTHOR -> stringRanks[authors[row]];
+                case GENRE -> genres[row] == NO_GENRE ? 0 : GENRE_KEYS[genres[row]];
+                case COPIES -> copies[row];
+                case ISBN -> row;
+            };
+        }
+
+        private Book book(int row) {
+            byte genre = genres[row];
+            return new Book(isbns[row], strings[titles[row]], strings[authors[row]], years[row],
+                    genre == NO_GENRE ? null : GENRES[genre], copies[row]);
+        }
+    }
+
+}
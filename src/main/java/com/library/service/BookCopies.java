@@ -0,0 +1,80 @@
+package com.library.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.library.entity.Book;
+import com.library.exception.BookNotFoundException;
+import com.library.exception.NoCopiesAvailableException;
+import com.library.repository.BookRepository;
+
+/**
+ * Changes {@code copiesAvailable} with a single conditional UPDATE, so concurrent checkouts
+ * can never take the count below zero and no update is lost. There is no read-modify-write
+ * and no lock held beyond the row lock of the UPDATE itself.
+ */
+@Component
+public class BookCopies {
+
+    private final BookRepository bookRepository;
+
+    private final BookChangePublisher changePublisher;
+
+    public BookCopies(BookRepository bookRepository, BookChangePublisher changePublisher) {
+        this.bookRepository = bookRepository;
+        this.changePublisher = changePublisher;
+    }
+
+    /**
+     * Removes {@code count} copies, or throws {@link NoCopiesAvailableException} if fewer remain.
+     */
+    @Transactional
+    public void take(String isbn, int count) {
+        if (bookRepository.takeCopies(isbn, count) == 0) {
+            if (!bookRepository.existsById(isbn)) {
+                throw new BookNotFoundException("Book not found with ISBN: " + isbn);
+            }
+            throw new NoCopiesAvailableException("No copies of ISBN " + isbn + " are available");
+        }
+        published(isbn, -count);
+    }
+
+    /**
+     * Removes as many of {@code count} copies as are available, halving the request until
+     * it fits. Returns how many were taken, which may be 0.
+     */
+    @Transactional
+    public int takeUpTo(String isbn, int count) {
+        for (int attempt = count; attempt > 0; attempt /= 2) {
+            if (bookRepository.takeCopies(isbn, attempt) > 0) {
+                published(isbn, -attempt);
+                return attempt;
+            }
+        }
+        if (!bookRepository.existsById(isbn)) {
+            throw new BookNotFoundException("Book not found with ISBN: " + isbn);
+        }
+        return 0;
+    }
+
+    @Transactional
+    public void put(String isbn, int count) {
+        if (bookRepository.returnCopies(isbn, count) == 0) {
+            throw new BookNotFoundException("Book not found with ISBN: " + isbn);
+        }
+        published(isbn, count);
+    }
+
+    /**
+     * Reads the row back inside the same transaction, while the UPDATE's row lock is still
+     * held, so the state before the change is exactly {@code delta} copies away.
+     */
+    private void published(String isbn, int delta) {
+        Book current = bookRepository.findById(isbn)
+                .orElseThrow(() -> new BookNotFoundException("Book not found with ISBN: " + isbn));
+        Book previous = current.copy();
+        previous.setCopiesAvailable(current.getCopiesAvailable() - delta);
+        changePublisher.bookSaved(previous, current.copy());
+    }
+
+}
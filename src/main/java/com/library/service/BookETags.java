@@ -0,0 +1,85 @@
+package com.library.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.entity.Book;
+
+/**
+ * Entity tags for conditional GETs, derived from versions rather than by hashing response
+ * bodies.
+ *
+ * <p>A book's tag is its version and last-modified time. The current tag of recently seen
+ * books is kept here, apart from the book cache, so a matching {@code If-None-Match} can be
+ * answered with 304 before the book is looked up. Listings share one catalog tag that changes
+ * on every committed write.
+ */
+@Component
+public class BookETags implements BookChangeListener {
+
+    /**
+     * Stored for deleted books so a lookup racing the delete cannot bring back the old tag.
+     */
+    private static final String DELETED = "";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    private final Cache<String, String> tags;
+
+    public BookETags(@Value("${library.cache.books.maximum-size:100000}") long maximumSize,
+                     @Value("${library.cache.books.ttl:10m}") Duration ttl) {
+        this.tags = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public static String of(Book book) {
+        long modified = book.getLastModified() == null ? 0 : book.getLastModified().toEpochMilli();
+        long version = book.getVersion() == null ? 0 : book.getVersion();
+        return version + "-" + Long.toString(modified, 36);
+    }
+
+    /**
+     * The current tag of {@code isbn}, or null if it is not known without a lookup.
+     */
+    public String get(String isbn) {
+        String tag = tags.getIfPresent(isbn);
+        return tag == null || tag.equals(DELETED) ? null : tag;
+    }
+
+    /**
+     * Records the tag of a book just read. Never replaces a tag recorded by a write.
+     */
+    public void remember(Book book) {
+        tags.asMap().putIfAbsent(book.getIsbn(), of(book));
+    }
+
+    /**
+     * Tag for any listing. The epoch keeps tags from an earlier run of the application from
+     * matching.
+     */
+    public String catalog() {
+        return "c" + epoch + "-" + catalogVersion.get();
+    }
+
+    @Override
+    public void bookSaved(Book previous, Book current) {
+        tags.put(current.getIsbn(), of(current));
+        catalogVersion.incrementAndGet();
+    }
+
+    @Override
+    public void bookDeleted(Book previous) {
+        tags.put(previous.getIsbn(), DELETED);
+        catalogVersion.incrementAndGet();
+    }
+
+}
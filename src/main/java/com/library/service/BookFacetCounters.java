@@ -0,0 +1,159 @@
+package com.library.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import com.library.entity.Book;
+import com.library.entity.BookFacets;
+import com.library.entity.Genre;
+import com.library.repository.BookRepository;
+import com.library.repository.BookRepository.GenreYearCount;
+
+/**
+ * Catalog facet counts kept in memory, so a facet request never reaches the database.
+ *
+ * <p>Books are counted per genre in an array indexed by {@link Genre#ordinal()}, with one
+ * extra slot for books without a genre, and per publication year in a histogram over
+ * 1800-2025. The counters are seeded by a single GROUP BY and then kept exact by every
+ * committed write, which subtracts the book's previous state and adds its new one.
+ *
+ * <p>Seeding happens once all singletons exist, before the web server, scheduled jobs and
+ * runners start, so no write can commit while the GROUP BY runs. A write racing the seed
+ * could otherwise be counted twice: once by the GROUP BY and again by its listener. Until
+ * seeded, facets are counted straight from the database.
+ */
+@Component
+public class BookFacetCounters implements BookChangeListener, SmartInitializingSingleton {
+
+    public static final int FIRST_YEAR = 1800;
+    public static final int LAST_YEAR = 2025;
+
+    private static final Genre[] GENRES = Genre.values();
+    private static final int NO_GENRE = GENRES.length;
+
+    private final BookRepository bookRepository;
+
+    private final Lock lock = new ReentrantLock();
+
+    private final Counts counts = new Counts();
+
+    private volatile boolean ready;
+
+    public BookFacetCounters(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        seed();
+    }
+
+    /**
+     * Recounts from the database. Only exact while no write is in flight, which holds at startup.
+     */
+    public void seed() {
+        lock.lock();
+        try {
+            counts.clear();
+            counts.addAll(bookRepository.countByGenreAndYear());
+            ready = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public BookFacets facets() {
+        if (!ready) {
+            Counts fresh = new Counts();
+            fresh.addAll(bookRepository.countByGenreAndYear());
+            return fresh.facets();
+        }
+        lock.lock();
+        try {
+            return counts.facets();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bookSaved(Book previous, Book current) {
+        lock.lock();
+        try {
+            if (previous != null) {
+                counts.add(previous.getGenre(), previous.getPublicationYear(), -1, -previous.getCopiesAvailable());
+            }
+            counts.add(current.getGenre(), current.getPublicationYear(), 1, current.getCopiesAvailable());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bookDeleted(Book previous) {
+        lock.lock();
+        try {
+            counts.add(previous.getGenre(), previous.getPublicationYear(), -1, -previous.getCopiesAvailable());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Counts {
+
+        private final long[] genreBooks = new long[GENRES.length + 1];
+
+        private final long[] yearBooks = new long[LAST_YEAR - FIRST_YEAR + 1];
+
+        private long totalBooks;
+
+        private long totalCopies;
+
+        void clear() {
+            Arrays.fill(genreBooks, 0);
+            Arrays.fill(yearBooks, 0);
+            totalBooks = 0;
+            totalCopies = 0;
+        }
+
+        void addAll(List<GenreYearCount> rows) {
+            for (GenreYearCount row : rows) {
+                add(row.getGenre(), row.getPublicationYear(), row.getBooks(), row.getCopies());
+            }
+        }
+
+        /**
+         * Years outside the histogram still count towards the totals and genres.
+         */
+        void add(Genre genre, int year, long books, long copies) {
+            genreBooks[genre == null ? NO_GENRE : genre.ordinal()] += books;
+            if (year >= FIRST_YEAR && year <= LAST_YEAR) {
+                yearBooks[year - FIRST_YEAR] += books;
+            }
+            totalBooks += books;
+            totalCopies += copies;
+        }
+
+        BookFacets facets() {
+            Map<String, Long> genres = new LinkedHashMap<>();
+            for (Genre genre : GENRES) {
+                genres.put(genre.name(), genreBooks[genre.ordinal()]);
+            }
+            genres.put("NONE", genreBooks[NO_GENRE]);
+            Map<Integer, Long> decades = new LinkedHashMap<>();
+            for (int i = 0; i < yearBooks.length; i++) {
+                decades.merge(FIRST_YEAR + i / 10 * 10, yearBooks[i], Long::sum);
+            }
+            return new BookFacets(totalBooks, totalCopies, genres, decades);
+        }
+
+    }
+
+}
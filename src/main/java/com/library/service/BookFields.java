@@ -0,0 +1,136 @@
+package com.library.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Sort;
+
+import com.library.entity.Book;
+import com.library.entity.CursorPage;
+import com.library.exception.BadRequestException;
+
+/**
+ * A sparse fieldset of books, parsed from {@code ?fields=isbn,title}. Names are the JSON
+ * property names of {@link Book}. Listings read only the selected columns, and responses
+ * carry only the selected properties, always in {@link Book} declaration order.
+ */
+public final class BookFields {
+
+    public enum Field {
+        ISBN("isbn", Book::getIsbn),
+        TITLE("title", Book::getTitle),
+        AUTHOR("author", Book::getAuthor),
+        PUBLICATION_YEAR("publicationYear", Book::getPublicationYear),
+        GENRE("genre", Book::getGenre),
+        COPIES_AVAILABLE("copiesAvailable", Book::getCopiesAvailable);
+
+        private final String property;
+        private final Function<Book, Object> getter;
+
+        Field(String property, Function<Book, Object> getter) {
+            this.property = property;
+            this.getter = getter;
+        }
+
+        public String property() {
+            return property;
+        }
+
+        public static Field fromProperty(String property) {
+            for (Field field : values()) {
+                if (field.property.equals(property)) {
+                    return field;
+                }
+            }
+            throw new BadRequestException("Invalid field: " + property);
+        }
+    }
+
+    /**
+     * Every property; responses keep the full {@link Book} shape.
+     */
+    public static final BookFields ALL = new BookFields(EnumSet.allOf(Field.class));
+
+    private final Set<Field> fields;
+
+    private BookFields(Set<Field> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * Parses a comma-separated list of property names. Null or blank means {@link #ALL}.
+     */
+    public static BookFields parse(String param) {
+        if (param == null || param.isBlank()) {
+            return ALL;
+        }
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        for (String part : param.split(",")) {
+            if (!part.isBlank()) {
+                fields.add(Field.fromProperty(part.trim()));
+            }
+        }
+        return fields.size() == Field.values().length ? ALL : new BookFields(fields);
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    public Set<Field> fields() {
+        return fields;
+    }
+
+    /**
+     * The properties to read from the database: the selected ones plus whatever {@code sort}
+     * orders by, which the caller needs to build a cursor.
+     */
+    public List<String> properties(Sort sort) {
+        Set<Field> needed = EnumSet.copyOf(fields);
+        for (Sort.Order order : sort) {
+            needed.add(Field.fromProperty(order.getProperty()));
+        }
+        List<String> properties = new ArrayList<>(needed.size());
+        for (Field field : needed) {
+            properties.add(field.property);
+        }
+        return properties;
+    }
+
+    public Map<String, Object> shape(Book book) {
+        Map<String, Object> shaped = new LinkedHashMap<>();
+        for (Field field : fields) {
+            shaped.put(field.property, field.getter.apply(book));
+        }
+        return shaped;
+    }
+
+    /**
+     * {@code books} unchanged for {@link #ALL}, otherwise one map per book holding only the
+     * selected properties.
+     */
+    public List<?> shape(List<Book> books) {
+        if (isAll()) {
+            return books;
+        }
+        List<Map<String, Object>> shaped = new ArrayList<>(books.size());
+        for (Book book : books) {
+            shaped.add(shape(book));
+        }
+        return shaped;
+    }
+
+    public CursorPage<?> shape(CursorPage<Book> page) {
+        if (isAll()) {
+            return page;
+        }
+        return new CursorPage<>(shape(page.getItems()), page.getNextCursor());
+    }
+
+}
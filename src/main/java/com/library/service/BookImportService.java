@@ -0,0 +1,292 @@
+package com.library.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.entity.Book;
+import com.library.entity.BookImportReport;
+import com.library.entity.Genre;
+import com.library.exception.BadRequestException;
+import com.library.repository.BookRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk ingestion of books from a streamed JSON array or CSV file.
+ *
+ * <p>Rows are parsed one at a time and validated against the {@link Book} constraints, then
+ * written in chunks. Each chunk runs in its own transaction: one query finds the ISBNs that
+ * already exist, the rest are persisted and flushed as JDBC batches, and the persistence
+ * context is cleared. Bad rows are reported and skipped. A chunk that fails to write, for
+ * example because another client inserted one of its ISBNs in the meantime, is reported row
+ * by row without affecting earlier chunks. The entity manager is used directly, so its
+ * failures arrive as untranslated {@link PersistenceException}s.
+ */
+@Service
+public class BookImportService {
+
+    static final List<String> CSV_COLUMNS = List.of(
+            "isbn", "title", "author", "publicationyear", "genre", "copiesavailable");
+
+    private final BookRepository bookRepository;
+
+    private final EntityManager entityManager;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BookChangePublisher changePublisher;
+
+    private final int chunkSize;
+
+    public BookImportService(BookRepository bookRepository, EntityManager entityManager, Validator validator,
+                             ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                             BookChangePublisher changePublisher,
+                             @Value("${library.import.chunk-size:1000}") int chunkSize) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.changePublisher = changePublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports a JSON array of book objects, reading it incrementally from {@code in}.
+     */
+    public BookImportReport importJson(InputStream in) throws IOException {
+        ImportBatch batch = new ImportBatch();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Expected a JSON array of books");
+            }
+            long row = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                row++;
+                JsonNode node = objectMapper.readTree(parser);
+                try {
+                    batch.add(row, objectMapper.treeToValue(node, Book.class));
+                } catch (JsonProcessingException e) {
+                    batch.reject(row, node.path("isbn").asText(null), "Malformed book: " + e.getOriginalMessage());
+                }
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new BadRequestException("Expected a book object at row " + (row + 1));
+            }
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Imports CSV with a header row naming the columns isbn, title, author, publicationYear,
+     * genre and copiesAvailable in any order. Fields may be double-quoted; quoted fields
+     * cannot span lines.
+     */
+    public BookImportReport importCsv(InputStream in) throws IOException {
+        ImportBatch batch = new ImportBatch();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            return batch.finish();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseCsvLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new BadRequestException("CSV header is missing column: " + column);
+            }
+        }
+
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            List<String> fields = parseCsvLine(line);
+            String isbn = field(fields, columns, "isbn");
+            try {
+                Book book = new Book();
+                book.setIsbn(isbn);
+                book.setTitle(field(fields, columns, "title"));
+                book.setAuthor(field(fields, columns, "author"));
+                book.setPublicationYear(Integer.parseInt(field(fields, columns, "publicationyear").trim()));
+                String genre = field(fields, columns, "genre");
+                book.setGenre(genre.isBlank() ? null : Genre.valueOf(genre.trim().toUpperCase(Locale.ROOT)));
+                book.setCopiesAvailable(Integer.parseInt(field(fields, columns, "copiesavailable").trim()));
+                batch.add(row, book);
+            } catch (IllegalArgumentException e) {
+                batch.reject(row, isbn, "Malformed row: " + e.getMessage());
+            }
+        }
+        return batch.finish();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        int index = columns.get(name);
+        return index < fields.size() ? fields.get(index) : "";
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static final class ImportRow {
+
+        private final long row;
+        private final Book book;
+
+        private ImportRow(long row, Book book) {
+            this.row = row;
+            this.book = book;
+        }
+    }
+
+    /**
+     * Accumulates validated rows into chunks and writes each chunk once it is full.
+     */
+    private final class ImportBatch {
+
+        private final BookImportReport report = new BookImportReport();
+
+        private final List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        private final Set<String> chunkIsbns = new HashSet<>();
+
+        private final long startNanos = System.nanoTime();
+
+        private void add(long row, Book book) {
+            report.setReceived(report.getReceived() + 1);
+            Set<ConstraintViolation<Book>> violations = validator.validate(book);
+            if (!violations.isEmpty()) {
+                report.reject(row, book.getIsbn(), violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            if (!chunkIsbns.add(book.getIsbn())) {
+                report.reject(row, book.getIsbn(), "ISBN " + book.getIsbn() + " appears more than once in the import");
+                return;
+            }
+            chunk.add(new ImportRow(row, book));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private void reject(long row, String isbn, String message) {
+            report.setReceived(report.getReceived() + 1);
+            report.reject(row, isbn, message);
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                List<ImportRow> duplicates = transactionTemplate.execute(status -> writeChunk());
+                for (ImportRow row : duplicates) {
+                    report.reject(row.row, row.book.getIsbn(), "ISBN " + row.book.getIsbn() + " already exists");
+                }
+                report.setImported(report.getImported() + chunk.size() - duplicates.size());
+            } catch (DataAccessException | PersistenceException e) {
+                entityManager.clear();
+                String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                for (ImportRow row : chunk) {
+                    report.reject(row.row, row.book.getIsbn(), "Chunk write failed: " + cause);
+                }
+            }
+            chunk.clear();
+            chunkIsbns.clear();
+        }
+
+        /**
+         * Persists the chunk, returning the rows skipped because their ISBN already exists.
+         */
+        private List<ImportRow> writeChunk() {
+            Set<String> existing = new HashSet<>(bookRepository.findExistingIsbns(chunkIsbns));
+            List<ImportRow> duplicates = new ArrayList<>();
+            for (ImportRow row : chunk) {
+                Book book = row.book;
+                if (existing.contains(book.getIsbn())) {
+                    duplicates.add(row);
+                    continue;
+                }
+                entityManager.persist(book);
+                changePublisher.bookSaved(null, book.copy());
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return duplicates;
+        }
+
+        private BookImportReport finish() {
+            flush();
+            long elapsedNanos = System.nanoTime() - startNanos;
+            report.setElapsedMillis(elapsedNanos / 1_000_000);
+            report.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.getReceived() * 1_000_000_000.0 / elapsedNanos);
+            return report;
+        }
+    }
+
+}
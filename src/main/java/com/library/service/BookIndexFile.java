@@ -0,0 +1,745 @@
+package com.library.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.library.entity.Book;
+import com.library.entity.Genre;
+import com.library.repository.BookRepository;
+import com.library.repository.BookRepository.CatalogFingerprint;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional on-disk copy of the catalog that outlives the process, for single-book lookups and
+ * ISBN range scans that need neither the database nor a warm cache.
+ *
+ * <p>Two files in {@code library.index.file.directory}: {@code books.dat} holds one
+ * length-prefixed binary record per book, and {@code books.idx} is a sorted array of
+ * fixed-width entries, each an ISBN padded to 13 bytes and the offset of its record. Both are
+ * memory-mapped read-only. A lookup binary-searches the mapped ISBN bytes and decodes only
+ * the record it finds.
+ *
+ * <p>Committed writes are appended to {@code books.dat} and kept in an ISBN-ordered map of
+ * pending changes, which reads check first. Once there are enough of them, a background
+ * thread rewrites both files with the changes merged and swaps them in by rename; shutdown
+ * does the same before closing. At startup the records appended since the last merge are
+ * replayed, and the result is compared with {@link BookRepository#fingerprint()}. If the
+ * files are missing, damaged or out of step with the database, they are rebuilt from a
+ * catalog scan.
+ *
+ * <p>{@link #load()} and {@link #rebuild()} hold the write lock throughout, so a write that
+ * commits meanwhile waits for them and is then applied. A write that finds the index closed
+ * has already committed, so the scan of the next rebuild sees it. Reads never wait: they
+ * return null while the index is closed or locked, and callers use the database instead.
+ */
+@Component
+public class BookIndexFile implements BookChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BookIndexFile.class);
+
+    private static final int INDEX_MAGIC = 0x4C42_4958;
+    private static final int RECORDS_MAGIC = 0x4C42_5244;
+    private static final int FORMAT = 1;
+
+    /**
+     * Magic, format, entry count, unused, generation, end of the records covered by the entries.
+     */
+    private static final int INDEX_HEADER_BYTES = 32;
+
+    /**
+     * Magic, unused, generation. The generation ties a records file to its index, so a crash
+     * between the two renames of a merge is detected.
+     */
+    private static final int RECORDS_HEADER_BYTES = 16;
+
+    private static final int ISBN_BYTES = 13;
+    private static final int ENTRY_BYTES = 24;
+    private static final int OFFSET_IN_ENTRY = 16;
+
+    private static final byte LIVE = 0;
+    private static final byte DELETED = 1;
+    private static final byte NO_GENRE = -1;
+
+    // Record layout after the int length: fixed-width fields first, then the strings.
+    private static final int STATE = 4;
+    private static final int YEAR = 5;
+    private static final int GENRE = 7;
+    private static final int COPIES = 8;
+    private static final int VERSION = 12;
+    private static final int MODIFIED_SECONDS = 20;
+    private static final int MODIFIED_NANOS = 28;
+    private static final int STRINGS = 32;
+
+    private static final int MERGE_THRESHOLD = 4096;
+
+    private static final Genre[] GENRES = Genre.values();
+
+    private final BookCatalogScanner catalogScanner;
+
+    private final BookRepository bookRepository;
+
+    private final boolean enabled;
+
+    private final Path indexPath;
+
+    private final Path recordsPath;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MappedByteBuffer index;
+
+    private int entries;
+
+    private MappedByteBuffer records;
+
+    private FileChannel appender;
+
+    /**
+     * Books saved since the last merge by ISBN, with null for a deleted book.
+     */
+    private final TreeMap<String, Book> pending = new TreeMap<>();
+
+    /**
+     * Writes committed while the merge thread writes new files, or null when it is not.
+     */
+    private TreeMap<String, Book> changesDuringMerge;
+
+    private boolean mergeScheduled;
+
+    /**
+     * Held by a merge from its snapshot to its swap, and by anything else that replaces the
+     * files, so only one writes them at a time.
+     */
+    private final Lock mergeLock = new ReentrantLock();
+
+    private volatile boolean ready;
+
+    public BookIndexFile(BookCatalogScanner catalogScanner, BookRepository bookRepository,
+                         @Value("${library.index.file.enabled:false}") boolean enabled,
+                         @Value("${library.index.file.directory:data/book-index}") Path directory) {
+        this.catalogScanner = catalogScanner;
+        this.bookRepository = bookRepository;
+        this.enabled = enabled;
+        this.indexPath = directory.resolve("books.idx");
+        this.recordsPath = directory.resolve("books.dat");
+    }
+
+    /**
+     * Opens the files left by an earlier run, or rebuilds them if they cannot be used.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        if (!load()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Opens the existing files and replays the records appended after the last merge.
+     * Returns false, leaving the index closed, unless the result matches the database.
+     */
+    public boolean load() {
+        mergeLock.lock();
+        lock.writeLock().lock();
+        try {
+            release();
+            if (!Files.exists(indexPath) || !Files.exists(recordsPath)) {
+                return false;
+            }
+            long recordsEnd = map();
+            replay(recordsEnd);
+            if (!matches(bookRepository.fingerprint())) {
+                log.info("Book index files are out of step with the database; rebuilding");
+                release();
+                return false;
+            }
+            ready = true;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not open book index files; rebuilding", e);
+            release();
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+            mergeLock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites both files from a scan of the catalog.
+     */
+    public void rebuild() {
+        mergeLock.lock();
+        lock.writeLock().lock();
+        try {
+            release();
+            Files.createDirectories(indexPath.getParent());
+            try (Writer writer = new Writer()) {
+                catalogScanner.forEachBook(book -> writer.add(book.getIsbn(), encode(book)));
+                writer.flush();
+                writer.commit();
+            }
+            map();
+            ready = true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not build book index files; reads will use the database", e);
+            release();
+        } finally {
+            lock.writeLock().unlock();
+            mergeLock.unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The book with {@code isbn}, or empty if there is none. Null if the index is not open or
+     * is locked by a load, rebuild or write, so a lookup never waits for the index.
+     */
+    public Optional<Book> get(String isbn) {
+        if (!ready || !lock.readLock().tryLock()) {
+            return null;
+        }
+        try {
+            if (!ready) {
+                return null;
+            }
+            if (pending.containsKey(isbn)) {
+                return Optional.ofNullable(pending.get(isbn)).map(Book::copy);
+            }
+            int entry = lowerBound(isbn, false);
+            if (entry == entries || compare(index, entry, isbn) != 0) {
+                return Optional.empty();
+            }
+            return Optional.of(decode(records, offset(index, entry)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Books with an ISBN between {@code startIsbn} and {@code endIsbn} inclusive, in ISBN order.
+     * Null if the index is not open or is locked, as for {@link #get}.
+     */
+    public List<Book> isbnRange(String startIsbn, String endIsbn) {
+        if (!ready || !lock.readLock().tryLock()) {
+            return null;
+        }
+        try {
+            if (!ready) {
+                return null;
+            }
+            if (startIsbn.compareTo(endIsbn) > 0) {
+                return new ArrayList<>();
+            }
+            int from = lowerBound(startIsbn, false);
+            int to = lowerBound(endIsbn, true);
+            NavigableMap<String, Book> changed = pending.subMap(startIsbn, true, endIsbn, true);
+            List<Book> books = new ArrayList<>(to - from + changed.size());
+            PendingChanges.merge(from, to, (entry, isbn) -> compare(index, entry, isbn), changed,
+                    entry -> books.add(decode(records, offset(index, entry))), book -> books.add(book.copy()));
+            return books;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bookSaved(Book previous, Book current) {
+        change(current.getIsbn(), current);
+    }
+
+    @Override
+    public void bookDeleted(Book previous) {
+        change(previous.getIsbn(), null);
+    }
+
+    /**
+     * Merges any pending changes into the files so the next start has nothing to replay.
+     */
+    @PreDestroy
+    public void close() {
+        mergeLock.lock();
+        lock.writeLock().lock();
+        try {
+            if (ready && !pending.isEmpty()) {
+                try (Writer writer = write(index, entries, records, pending)) {
+                    release();
+                    writer.commit();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not merge book index files on shutdown; they will be replayed on the next start", e);
+        } finally {
+            release();
+            lock.writeLock().unlock();
+            mergeLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the index and deletes its files, for when the database is replaced behind its
+     * back. A restored catalog can carry the same versions and modification times as the one
+     * the files were built from, so the fingerprint check alone would not reject them.
+     */
+    public void delete() throws IOException {
+        mergeLock.lock();
+        lock.writeLock().lock();
+        try {
+            release();
+            for (Path path : List.of(indexPath, recordsPath, temporary(indexPath), temporary(recordsPath))) {
+                Files.deleteIfExists(path);
+            }
+        } finally {
+            lock.writeLock().unlock();
+            mergeLock.unlock();
+        }
+    }
+
+    private void change(String isbn, Book book) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                return;
+            }
+            ByteBuffer record = book == null ? encodeDeleted(isbn) : encode(book);
+            while (record.hasRemaining()) {
+                appender.write(record);
+            }
+            pending.put(isbn, book);
+            if (changesDuringMerge != null) {
+                changesDuringMerge.put(isbn, book);
+            } else if (pending.size() >= MERGE_THRESHOLD && !mergeScheduled) {
+                mergeScheduled = true;
+                Thread.ofPlatform().name("book-index-merge").daemon().start(this::merge);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The database stays correct; reads fall back to it until the next start rebuilds the files.
+            log.warn("Could not write to book index files; reads will use the database", e);
+            release();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merges the pending changes into new files on a thread of its own. The files are written
+     * from the mapped buffers without the lock while reads and writes carry on; writes made
+     * meanwhile are recorded. Only the rename and re-mapping of the files, and the appending
+     * of the recorded writes to the new records file, hold the write lock.
+     */
+    private void merge() {
+        mergeLock.lock();
+        try {
+            ByteBuffer baseIndex;
+            int baseEntries;
+            ByteBuffer baseRecords;
+            NavigableMap<String, Book> changes;
+            lock.writeLock().lock();
+            try {
+                mergeScheduled = false;
+                if (!ready) {
+                    return;
+                }
+                baseIndex = index;
+                baseEntries = entries;
+                baseRecords = records;
+                changes = new TreeMap<>(pending);
+                changesDuringMerge = new TreeMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try (Writer writer = write(baseIndex, baseEntries, baseRecords, changes)) {
+                swapIn(writer);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not merge book index files; reads will use the database", e);
+            lock.writeLock().lock();
+            try {
+                release();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    /**
+     * Renames the merged files over the current ones and appends the writes recorded during
+     * the merge to the new records file, which become its pending changes. Does nothing if
+     * the index was closed by a failed write meanwhile.
+     */
+    private void swapIn(Writer writer) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringMerge == null) {
+                return;
+            }
+            TreeMap<String, Book> recorded = changesDuringMerge;
+            release();
+            writer.commit();
+            map();
+            for (Map.Entry<String, Book> change : recorded.entrySet()) {
+                Book book = change.getValue();
+                ByteBuffer record = book == null ? encodeDeleted(change.getKey()) : encode(book);
+                while (record.hasRemaining()) {
+                    appender.write(record);
+                }
+            }
+            pending.putAll(recorded);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes new files holding every live record of the given base and changes in ISBN order,
+     * ready for {@link Writer#commit()}. Unchanged records are copied as raw bytes without
+     * being decoded.
+     */
+    private Writer write(ByteBuffer baseIndex, int baseEntries, ByteBuffer baseRecords,
+                         NavigableMap<String, Book> changes) throws IOException {
+        Writer writer = new Writer();
+        try {
+            PendingChanges.merge(0, baseEntries, (entry, isbn) -> compare(baseIndex, entry, isbn), changes,
+                    entry -> writer.add(isbn(baseIndex, entry), raw(baseRecords, offset(baseIndex, entry))),
+                    book -> writer.add(book.getIsbn(), encode(book)));
+            writer.flush();
+            return writer;
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps both files and opens the records file for appending. Returns the end of the
+     * records covered by the index.
+     */
+    private long map() throws IOException {
+        long recordsEnd;
+        try (FileChannel indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+        }
+        if (index.capacity() < INDEX_HEADER_BYTES || index.getInt(0) != INDEX_MAGIC || index.getInt(4) != FORMAT) {
+            throw new IOException("Not a book index file: " + indexPath);
+        }
+        entries = index.getInt(8);
+        long generation = index.getLong(16);
+        recordsEnd = index.getLong(24);
+        if (index.capacity() != INDEX_HEADER_BYTES + (long) entries * ENTRY_BYTES) {
+            throw new IOException("Truncated book index file: " + indexPath);
+        }
+        appender = FileChannel.open(recordsPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        records = appender.map(FileChannel.MapMode.READ_ONLY, 0, appender.size());
+        if (records.capacity() < recordsEnd || records.getInt(0) != RECORDS_MAGIC || records.getLong(8) != generation) {
+            throw new IOException("Book records file does not belong to " + indexPath);
+        }
+        appender.position(appender.size());
+        return recordsEnd;
+    }
+
+    /**
+     * Loads the records appended after {@code recordsEnd} into the pending changes, cutting
+     * off a record left incomplete by a crash.
+     */
+    private void replay(long recordsEnd) throws IOException {
+        int offset = Math.toIntExact(recordsEnd);
+        while (offset < records.capacity()) {
+            int remaining = records.capacity() - offset;
+            if (remaining < STRINGS || records.getInt(offset) < STRINGS - 4 || remaining < 4 + records.getInt(offset)) {
+                appender.truncate(offset);
+                appender.position(offset);
+                break;
+            }
+            String isbn = string(records, offset + STRINGS, 1);
+            pending.put(isbn, records.get(offset + STATE) == DELETED ? null : decode(records, offset));
+            offset += 4 + records.getInt(offset);
+        }
+        records = appender.map(FileChannel.MapMode.READ_ONLY, 0, recordsEnd);
+    }
+
+    /**
+     * Compares the live books with the database's fingerprint. Modification times are
+     * compared to the millisecond, as the column may round finer digits.
+     */
+    private boolean matches(CatalogFingerprint fingerprint) {
+        long books = 0;
+        long versions = 0;
+        Instant lastModified = null;
+        for (int entry = 0; entry < entries; entry++) {
+            if (pending.containsKey(isbn(index, entry))) {
+                continue;
+            }
+            int offset = offset(index, entry);
+            books++;
+            versions += Math.max(records.getLong(offset + VERSION), 0);
+            lastModified = latest(lastModified, modified(records, offset));
+        }
+        for (Book book : pending.values()) {
+            if (book != null) {
+                books++;
+                versions += book.getVersion() == null ? 0 : book.getVersion();
+                lastModified = latest(lastModified, book.getLastModified());
+            }
+        }
+        Instant expected = fingerprint.getLastModified();
+        return books == fingerprint.getBooks() && versions == fingerprint.getVersions()
+                && (lastModified == null ? expected == null
+                        : expected != null && Math.abs(lastModified.toEpochMilli() - expected.toEpochMilli()) <= 1);
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        return a == null || b != null && b.isAfter(a) ? b : a;
+    }
+
+    private void release() {
+        ready = false;
+        changesDuringMerge = null;
+        index = null;
+        records = null;
+        entries = 0;
+        pending.clear();
+        if (appender != null) {
+            try {
+                appender.close();
+            } catch (IOException e) {
+                log.warn("Could not close book records file", e);
+            }
+            appender = null;
+        }
+    }
+
+    private int lowerBound(String isbn, boolean after) {
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int order = compare(index, mid, isbn);
+            if (order < 0 || after && order == 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the ISBN of {@code entry} with {@code isbn} as {@link String#compareTo} would,
+     * straight from the mapped bytes.
+     */
+    private static int compare(ByteBuffer index, int entry, String isbn) {
+        int base = INDEX_HEADER_BYTES + entry * ENTRY_BYTES;
+        for (int i = 0; i < ISBN_BYTES; i++) {
+            int b = index.get(base + i) & 0xFF;
+            if (i == isbn.length()) {
+                return b == 0 ? 0 : 1;
+            }
+            if (b == 0) {
+                return -1;
+            }
+            if (b != isbn.charAt(i)) {
+                return b - isbn.charAt(i);
+            }
+        }
+        return isbn.length() > ISBN_BYTES ? -1 : 0;
+    }
+
+    private static String isbn(ByteBuffer index, int entry) {
+        int base = INDEX_HEADER_BYTES + entry * ENTRY_BYTES;
+        int length = 0;
+        while (length < ISBN_BYTES && index.get(base + length) != 0) {
+            length++;
+        }
+        byte[] bytes = new byte[length];
+        index.get(base, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static int offset(ByteBuffer index, int entry) {
+        return Math.toIntExact(index.getLong(INDEX_HEADER_BYTES + entry * ENTRY_BYTES + OFFSET_IN_ENTRY));
+    }
+
+    private static ByteBuffer encode(Book book) {
+        byte[] isbn = book.getIsbn().getBytes(StandardCharsets.US_ASCII);
+        byte[] title = book.getTitle().getBytes(StandardCharsets.UTF_8);
+        byte[] author = book.getAuthor().getBytes(StandardCharsets.UTF_8);
+        int length = STRINGS + 1 + isbn.length + 2 + title.length + 2 + author.length;
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(length - 4);
+        record.put(LIVE);
+        record.putShort((short) book.getPublicationYear());
+        record.put(book.getGenre() == null ? NO_GENRE : (byte) book.getGenre().ordinal());
+        record.putInt(book.getCopiesAvailable());
+        record.putLong(book.getVersion() == null ? -1 : book.getVersion());
+        Instant modified = book.getLastModified();
+        record.putLong(modified == null ? Long.MIN_VALUE : modified.getEpochSecond());
+        record.putInt(modified == null ? 0 : modified.getNano());
+        record.put((byte) isbn.length).put(isbn);
+        record.putShort((short) title.length).put(title);
+        record.putShort((short) author.length).put(author);
+        return record.flip();
+    }
+
+    private static ByteBuffer encodeDeleted(String isbn) {
+        byte[] bytes = isbn.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer record = ByteBuffer.allocate(STRINGS + 1 + bytes.length + 4);
+        record.putInt(record.capacity() - 4);
+        record.put(STATE, DELETED);
+        record.position(STRINGS);
+        record.put((byte) bytes.length).put(bytes);
+        record.putShort((short) 0).putShort((short) 0);
+        return record.flip();
+    }
+
+    private static Book decode(ByteBuffer records, int offset) {
+        int position = offset + STRINGS;
+        String isbn = string(records, position, 1);
+        position += 1 + records.get(position);
+        String title = string(records, position, 2);
+        position += 2 + records.getShort(position);
+        String author = string(records, position, 2);
+        byte genre = records.get(offset + GENRE);
+        Book book = new Book(isbn, title, author, records.getShort(offset + YEAR),
+                genre == NO_GENRE ? null : GENRES[genre], records.getInt(offset + COPIES));
+        long version = records.getLong(offset + VERSION);
+        book.setVersion(version < 0 ? null : version);
+        book.setLastModified(modified(records, offset));
+        return book;
+    }
+
+    private static Instant modified(ByteBuffer records, int offset) {
+        long seconds = records.getLong(offset + MODIFIED_SECONDS);
+        return seconds == Long.MIN_VALUE ? null : Instant.ofEpochSecond(seconds, records.getInt(offset + MODIFIED_NANOS));
+    }
+
+    /**
+     * Reads a string stored after a length prefix of {@code prefixBytes} bytes.
+     */
+    private static String string(ByteBuffer records, int position, int prefixBytes) {
+        int length = prefixBytes == 1 ? records.get(position) : records.getShort(position);
+        byte[] bytes = new byte[length];
+        records.get(position + prefixBytes, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer raw(ByteBuffer records, int offset) {
+        return records.slice(offset, 4 + records.getInt(offset));
+    }
+
+    private static Path temporary(Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    /**
+     * Writes a new pair of files next to the current ones. Records must be added in ISBN
+     * order. {@link #flush()} completes them on disk, and {@link #commit()} then renames the
+     * new files over the old ones, records file first.
+     */
+    private final class Writer implements AutoCloseable {
+
+        private final long generation = ThreadLocalRandom.current().nextLong();
+        private final FileChannel recordsOut;
+        private final DataOutputStream indexOut;
+        private long recordsEnd = RECORDS_HEADER_BYTES;
+        private int count;
+
+        private Writer() throws IOException {
+            recordsOut = FileChannel.open(temporary(recordsPath), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            OutputStream out = Files.newOutputStream(temporary(indexPath));
+            indexOut = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+            indexOut.write(new byte[INDEX_HEADER_BYTES]);
+            write(ByteBuffer.allocate(RECORDS_HEADER_BYTES).putInt(RECORDS_MAGIC).putInt(0).putLong(generation).flip());
+        }
+
+        private void add(String isbn, ByteBuffer record) {
+            try {
+                byte[] key = new byte[ISBN_BYTES + 3];
+                byte[] bytes = isbn.getBytes(StandardCharsets.US_ASCII);
+                System.arraycopy(bytes, 0, key, 0, bytes.length);
+                indexOut.write(key);
+                indexOut.writeLong(recordsEnd);
+                recordsEnd += record.remaining();
+                write(record);
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                recordsOut.write(buffer);
+            }
+        }
+
+        private void flush() throws IOException {
+            indexOut.close();
+            try (FileChannel header = FileChannel.open(temporary(indexPath), StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(INDEX_HEADER_BYTES)
+                        .putInt(INDEX_MAGIC).putInt(FORMAT).putInt(count).putInt(0)
+                        .putLong(generation).putLong(recordsEnd).flip();
+                while (buffer.hasRemaining()) {
+                    header.write(buffer);
+                }
+                header.force(true);
+            }
+            recordsOut.force(true);
+            recordsOut.close();
+        }
+
+        private void commit() throws IOException {
+            Files.move(temporary(recordsPath), recordsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(temporary(indexPath), indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            indexOut.close();
+            recordsOut.close();
+        }
+    }
+
+}
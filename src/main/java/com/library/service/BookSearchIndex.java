@@ -0,0 +1,488 @@
+package com.library.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.library.entity.Book;
+
+/**
+ * In-memory inverted index over book titles and authors.
+ *
+ * <p>Text is split on anything that is not a letter or digit and lower-cased. Each term maps
+ * to a posting list of ints, {@code docId << 1 | field}, appended in increasing doc id order.
+ * Terms are kept in a sorted map so a prefix expands to a contiguous sub-map. A save that
+ * keeps the title and author, such as a checkout, only swaps the stored book. Other updates
+ * append a new document and tombstone the old one, and the index is compacted from its live
+ * documents once tombstones outnumber them.
+ *
+ * <p>Seeding at startup and compaction both build a separate copy without holding the lock,
+ * so neither writes nor searches are held up. Writes that commit meanwhile are recorded and
+ * replayed onto the copy before it is swapped in. Replaying a write the copy already holds
+ * changes nothing.
+ */
+@Component
+public class BookSearchIndex implements BookChangeListener {
+
+    public static final int MAX_RESULTS = 100;
+
+    private static final int AUTHOR = 0;
+    private static final int TITLE = 1;
+
+    private static final int TITLE_WEIGHT = 2;
+    private static final int AUTHOR_WEIGHT = 1;
+
+    private static final int COMPACTION_MIN_DEAD = 10_000;
+
+    private static final Comparator<Hit> BY_TITLE = Comparator
+            .comparing((Hit hit) -> hit.book.getTitle())
+            .thenComparing(hit -> hit.book.getIsbn());
+
+    private static final Comparator<Hit> BY_SCORE = Comparator
+            .comparingInt((Hit hit) -> hit.score).reversed()
+            .thenComparing(BY_TITLE);
+
+    private final BookCatalogScanner catalogScanner;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Held while a seed or a compaction builds a new copy, so only one runs at a time.
+     */
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private Index index = new Index();
+
+    /**
+     * Writes committed while a new copy is built, or null when none is.
+     */
+    private List<Change> changesDuringRebuild;
+
+    private volatile boolean ready;
+
+    public BookSearchIndex(BookCatalogScanner catalogScanner) {
+        this.catalogScanner = catalogScanner;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Index seeded = new Index();
+            boolean scanned = false;
+            try {
+                catalogScanner.forEachBook(book -> seeded.add(book.copy()));
+                scanned = true;
+            } finally {
+                swapIn(scanned ? seeded : null);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Books whose title or author contains every word of {@code query}, best matches first.
+     * A title match scores higher than an author match. Unless the query ends in whitespace,
+     * its last word is matched as a prefix.
+     */
+    public List<Book> search(String query, int limit) {
+        boolean lastIsPrefix = !query.isEmpty() && !Character.isWhitespace(query.charAt(query.length() - 1));
+        return query(tokenize(query), lastIsPrefix, false, BY_SCORE, limit);
+    }
+
+    /**
+     * Books with a title word starting with each word of {@code keyword}, ordered by title.
+     * Until the index is seeded, the same matches are found by walking the titles that
+     * contain the longest word in the database.
+     */
+    public List<Book> searchTitles(String keyword, int limit) {
+        List<String> tokens = tokenize(keyword);
+        if (!ready) {
+            return scanTitles(tokens, limit);
+        }
+        return query(tokens, true, true, BY_TITLE, limit);
+    }
+
+    @Override
+    public void bookSaved(Book previous, Book current) {
+        change(new Change(current.getIsbn(), current));
+    }
+
+    @Override
+    public void bookDeleted(Book previous) {
+        change(new Change(previous.getIsbn(), null));
+    }
+
+    private void change(Change change) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+            index.apply(change);
+            compact = changesDuringRebuild == null && index.needsCompaction();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            compact();
+        }
+    }
+
+    /**
+     * Re-indexes the live documents into a new copy. Runs on the writer that crossed the
+     * threshold, but only the snapshot and the swap hold the lock.
+     */
+    private void compact() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Book> survivors;
+            lock.writeLock().lock();
+            try {
+                if (!index.needsCompaction()) {
+                    return;
+                }
+                survivors = index.liveDocs();
+                changesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Index compacted = new Index();
+            boolean built = false;
+            try {
+                survivors.forEach(compacted::add);
+                built = true;
+            } finally {
+                swapIn(built ? compacted : null);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Replays the writes recorded since the copy was started and makes it the index. With
+     * null, just stops recording.
+     */
+    private void swapIn(Index rebuilt) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilt != null) {
+                changesDuringRebuild.forEach(rebuilt::apply);
+                index = rebuilt;
+                ready = true;
+            }
+            changesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Book> query(List<String> tokens, boolean lastIsPrefix, boolean titlesOnly,
+                             Comparator<Hit> order, int limit) {
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Matches matches = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean prefix = lastIsPrefix && i == tokens.size() - 1 || titlesOnly;
+                Matches next = index.match(tokens.get(i), prefix, titlesOnly);
+                matches = matches == null ? next : matches.intersect(next);
+                if (matches.size == 0) {
+                    return Collections.emptyList();
+                }
+            }
+            return top(matches, order, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Book> top(Matches matches, Comparator<Hit> order, int limit) {
+        PriorityQueue<Hit> worstFirst = new PriorityQueue<>(limit + 1, order.reversed());
+        for (int i = 0; i < matches.size; i++) {
+            worstFirst.add(new Hit(index.docs.get(matches.docs[i]), matches.scores[i]));
+            if (worstFirst.size() > limit) {
+                worstFirst.poll();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(worstFirst);
+        hits.sort(order);
+        List<Book> books = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            books.add(hit.book);
+        }
+        return books;
+    }
+
+    /**
+     * Every title with a word starting with each token contains the longest token, so the
+     * database narrows the candidates and the word match is applied here.
+     */
+    private List<Book> scanTitles(List<String> tokens, int limit) {
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String longest = Collections.max(tokens, Comparator.comparingInt(String::length));
+        List<Book> books = new ArrayList<>(limit);
+        catalogScanner.forEachBookWithTitleContaining(longest, book -> {
+            if (hasWordPrefixes(book.getTitle(), tokens)) {
+                books.add(book.copy());
+            }
+            return books.size() < limit;
+        });
+        return books;
+    }
+
+    private static boolean hasWordPrefixes(String text, List<String> prefixes) {
+        List<String> words = tokenize(text);
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * A book saved, or deleted when {@code book} is null.
+     */
+    private record Change(String isbn, Book book) {
+    }
+
+    /**
+     * The terms and documents. Doc ids are positions in {@code docs}; a tombstoned document
+     * keeps its id, with a null entry and a cleared {@code live} bit, until compaction.
+     */
+    private static final class Index {
+
+        private final TreeMap<String, PostingList> terms = new TreeMap<>();
+
+        private final List<Book> docs = new ArrayList<>();
+
+        private final Map<String, Integer> docIds = new HashMap<>();
+
+        private final BitSet live = new BitSet();
+
+        private int dead;
+
+        private void apply(Change change) {
+            if (change.book() != null) {
+                add(change.book());
+                return;
+            }
+            Integer id = docIds.remove(change.isbn());
+            if (id != null) {
+                tombstone(id);
+            }
+        }
+
+        private void add(Book book) {
+            Integer existing = docIds.get(book.getIsbn());
+            if (existing != null) {
+                Book indexed = docs.get(existing);
+                if (Objects.equals(indexed.getTitle(), book.getTitle())
+                        && Objects.equals(indexed.getAuthor(), book.getAuthor())) {
+                    docs.set(existing, book);
+                    return;
+                }
+                tombstone(existing);
+            }
+            int id = docs.size();
+            docs.add(book);
+            docIds.put(book.getIsbn(), id);
+            live.set(id);
+            // Author entries first so each posting list stays sorted when a term is in both fields.
+            for (String term : new LinkedHashSet<>(tokenize(book.getAuthor()))) {
+                terms.computeIfAbsent(term, key -> new PostingList()).add(id << 1 | AUTHOR);
+            }
+            for (String term : new LinkedHashSet<>(tokenize(book.getTitle()))) {
+                terms.computeIfAbsent(term, key -> new PostingList()).add(id << 1 | TITLE);
+            }
+        }
+
+        private void tombstone(int id) {
+            live.clear(id);
+            docs.set(id, null);
+            dead++;
+        }
+
+        private boolean needsCompaction() {
+            return dead >= COMPACTION_MIN_DEAD && dead >= docs.size() - dead;
+        }
+
+        private List<Book> liveDocs() {
+            List<Book> survivors = new ArrayList<>(docs.size() - dead);
+            for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1)) {
+                survivors.add(docs.get(id));
+            }
+            return survivors;
+        }
+
+        private Matches match(String token, boolean prefix, boolean titlesOnly) {
+            Collection<PostingList> lists;
+            if (prefix) {
+                lists = terms.subMap(token, true, token + Character.MAX_VALUE, true).values();
+            } else {
+                PostingList list = terms.get(token);
+                lists = list == null ? Collections.emptyList() : Collections.singletonList(list);
+            }
+            int total = 0;
+            for (PostingList list : lists) {
+                total += list.size;
+            }
+            int[] entries = new int[total];
+            int offset = 0;
+            for (PostingList list : lists) {
+                System.arraycopy(list.entries, 0, entries, offset, list.size);
+                offset += list.size;
+            }
+            if (lists.size() > 1) {
+                Arrays.sort(entries);
+            }
+
+            Matches matches = new Matches(total);
+            for (int entry : entries) {
+                int doc = entry >>> 1;
+                int field = entry & 1;
+                if (titlesOnly && field != TITLE || !live.get(doc)) {
+                    continue;
+                }
+                int weight = field == TITLE ? TITLE_WEIGHT : AUTHOR_WEIGHT;
+                if (matches.size > 0 && matches.docs[matches.size - 1] == doc) {
+                    matches.scores[matches.size - 1] = Math.max(matches.scores[matches.size - 1], weight);
+                } else {
+                    matches.add(doc, weight);
+                }
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * Growable int array of {@code docId << 1 | field} entries in increasing order.
+     */
+    private static final class PostingList {
+
+        private int[] entries = new int[4];
+        private int size;
+
+        private void add(int entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size + (size >> 1) + 1);
+            }
+            entries[size++] = entry;
+        }
+    }
+
+    /**
+     * Matching doc ids in increasing order with their accumulated scores.
+     */
+    private static final class Matches {
+
+        private final int[] docs;
+        private final int[] scores;
+        private int size;
+
+        private Matches(int capacity) {
+            this.docs = new int[capacity];
+            this.scores = new int[capacity];
+        }
+
+        private void add(int doc, int score) {
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+
+        private Matches intersect(Matches other) {
+            Matches result = new Matches(Math.min(size, other.size));
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (docs[i] < other.docs[j]) {
+                    i++;
+                } else if (docs[i] > other.docs[j]) {
+                    j++;
+                } else {
+                    result.add(docs[i], scores[i] + other.scores[j]);
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class Hit {
+
+        private final Book book;
+        private final int score;
+
+        private Hit(Book book, int score) {
+            this.book = book;
+            this.score = score;
+        }
+    }
+
+}
@@ -1,97 +1,481 @@
 package com.library.service;
 
 import com.library.entity.Book;
+import com.library.entity.BookBatchResult;
+import com.library.entity.BookFacets;
 import com.library.entity.BookPatch;
+import com.library.entity.BookPatchItem;
+import com.library.entity.BookQuery;
+import com.library.entity.CursorPage;
+import com.library.exception.BadRequestException;
 import com.library.exception.BookNotFoundException;
+import com.library.exception.ConcurrentUpdateException;
 import com.library.exception.DuplicateIsbnException;
+import com.library.exception.PreconditionFailedException;
 import com.library.repository.BookRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("library.books.service")
 public class BookService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final BookRepository bookRepository;
 
-    public BookService(BookRepository bookRepository) {
+    private final BookCatalogScanner catalogScanner;
+
+    private final BookCache bookCache;
+
+    private final BookChangePublisher changePublisher;
+
+    private final NewestBooksView newestBooksView;
+
+    private final BookSearchIndex searchIndex;
+
+    private final Validator validator;
+
+    private final BookCopies bookCopies;
+
+    private final HotCopyPool hotCopyPool;
+
+    private final BookFacetCounters facetCounters;
+
+    private final BookColumns columns;
+
+    private final BookIndexFile indexFile;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int updateAttempts;
+
+    public BookService(BookRepository bookRepository, BookCatalogScanner catalogScanner,
+                       BookCache bookCache, BookChangePublisher changePublisher,
+                       NewestBooksView newestBooksView, BookSearchIndex searchIndex,
+                       Validator validator, BookCopies bookCopies, HotCopyPool hotCopyPool,
+                       BookFacetCounters facetCounters, BookColumns columns, BookIndexFile indexFile,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${library.books.update-attempts:5}") int updateAttempts) {
         this.bookRepository = bookRepository;
+        this.catalogScanner = catalogScanner;
+        this.bookCache = bookCache;
+        this.changePublisher = changePublisher;
+        this.newestBooksView = newestBooksView;
+        this.searchIndex = searchIndex;
+        this.validator = validator;
+        this.bookCopies = bookCopies;
+        this.hotCopyPool = hotCopyPool;
+        this.facetCounters = facetCounters;
+        this.columns = columns;
+        this.indexFile = indexFile;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.updateAttempts = updateAttempts;
     }
 
     public Book createBook(Book book) {
         if (bookRepository.existsById(book.getIsbn())) {
             throw new DuplicateIsbnException("ISBN " + book.getIsbn() + " already exists");
         }
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        changePublisher.bookSaved(null, saved.copy());
+        return saved;
     }
 
     public List<Book> getBooks(){
         return  bookRepository.findAll();
     }
 
+    /**
+     * The whole catalog. For a sparse fieldset only the selected columns are read, in ISBN order.
+     */
+    public List<Book> getBooks(BookFields fields) {
+        if (fields.isAll()) {
+            return getBooks();
+        }
+        Sort sort = Sort.by("isbn");
+        return bookRepository.findProjected(Specification.allOf(), sort, Limit.unlimited(), fields.properties(sort));
+    }
+
+    /**
+     * Returns up to {@code size} books ordered by ISBN, starting strictly after {@code afterIsbn}.
+     * Seeks on the primary key, so every page costs the same regardless of how deep it is.
+     */
+    public CursorPage<Book> getBooksPage(String afterIsbn, int size) {
+        return getBooksPage(afterIsbn, size, BookFields.ALL);
+    }
+
+    /**
+     * {@link #getBooksPage(String, int)} reading only the columns of {@code fields}, plus the ISBN.
+     */
+    public CursorPage<Book> getBooksPage(String afterIsbn, int size, BookFields fields) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Limit limit = Limit.of(size + 1);
+        boolean first = afterIsbn == null || afterIsbn.isEmpty();
+        List<Book> books;
+        if (!fields.isAll()) {
+            Sort sort = Sort.by("isbn");
+            Specification<Book> spec = first ? Specification.allOf() : BookSpecifications.isbnAfter(afterIsbn);
+            books = bookRepository.findProjected(spec, sort, limit, fields.properties(sort));
+        } else if (first) {
+            books = bookRepository.findAllByOrderByIsbnAsc(limit);
+        } else {
+            books = bookRepository.findByIsbnGreaterThanOrderByIsbnAsc(afterIsbn, limit);
+        }
+        if (books.size() <= size) {
+            return new CursorPage<>(books, null);
+        }
+        List<Book> page = new ArrayList<>(books.subList(0, size));
+        return new CursorPage<>(page, page.get(size - 1).getIsbn());
+    }
+
+    public void forEachBook(Consumer<Book> action) {
+        catalogScanner.forEachBook(action);
+    }
+
+    /**
+     * Cache misses are read from the index file when it is enabled and open, otherwise from
+     * the database.
+     */
     public Book getBookByISBN(String isbn){
-        return bookRepository.findById(isbn).orElseThrow(() -> new BookNotFoundException("Book not found with ISBN: " + isbn));
+        return bookCache.get(isbn, this::loadBook)
+                .orElseThrow(() -> new BookNotFoundException("Book not found with ISBN: " + isbn));
+    }
+
+    private Optional<Book> loadBook(String isbn) {
+        Optional<Book> indexed = indexFile.get(isbn);
+        if (indexed != null) {
+            return indexed;
+        }
+        return bookRepository.findById(isbn).map(Book::copy);
     }
 
     public Book updateBook(String isbn, Book updatedBook) {
-        return bookRepository.findById(isbn).map(book -> {
-            book.setTitle(updatedBook.getTitle());
-            book.setAuthor(updatedBook.getAuthor());
-            book.setPublicationYear(updatedBook.getPublicationYear());
-            book.setGenre(updatedBook.getGenre());
-            book.setCopiesAvailable(updatedBook.getCopiesAvailable());
-            return bookRepository.save(book);
-        }).orElseThrow(() -> new BookNotFoundException("Book not found with ISBN: " + isbn));
+        return updateBook(isbn, updatedBook, null);
+    }
+
+    /**
+     * Replaces the book's fields, provided its current ETag is {@code expectedETag}; null
+     * means any version. See {@link #update} for how concurrent writers are handled.
+     */
+    public Book updateBook(String isbn, Book updatedBook, String expectedETag) {
+        return update(isbn, expectedETag, book -> applyUpdate(book, updatedBook));
     }
 
     public Book updateBookPartial(String isbn, BookPatch updatedBook) {
-        return bookRepository.findById(isbn).map(book -> {
-            book.setTitle(updatedBook.getTitle().isEmpty() ? book.getTitle() : updatedBook.getTitle());
-            book.setAuthor(updatedBook.getAuthor().isEmpty() ? book.getAuthor() : updatedBook.getAuthor());
-            book.setPublicationYear(updatedBook.getPublicationYear() == null ? book.getPublicationYear() : updatedBook.getPublicationYear());
-            book.setGenre(updatedBook.getGenre() == null ? book.getGenre() : updatedBook.getGenre());
-            book.setCopiesAvailable(updatedBook.getCopiesAvailable() == null ? book.getCopiesAvailable() : updatedBook.getCopiesAvailable());
-            return bookRepository.save(book);
-        }).orElseThrow(() -> new BookNotFoundException("Book not found with ISBN: " + isbn));
+        return updateBookPartial(isbn, updatedBook, null);
     }
 
-    public void deleteBook(String isbn) {
-        if (!bookRepository.existsById(isbn)) {
-            throw new BookNotFoundException("Book not found with ISBN: " + isbn);
+    public Book updateBookPartial(String isbn, BookPatch updatedBook, String expectedETag) {
+        return update(isbn, expectedETag, book -> applyPatch(book, updatedBook));
+    }
+
+    /**
+     * Reads, changes and writes the book in one transaction, relying on its version to detect
+     * a concurrent write in between, such as a checkout changing the copy count.
+     *
+     * <p>A client that sent an expected ETag made its change against that version, so losing
+     * the race fails with {@link PreconditionFailedException} and the client decides what to do.
+     * Without one the change is simply re-applied to a fresh read, up to
+     * {@code library.books.update-attempts} times, then fails with {@link ConcurrentUpdateException}.
+     */
+    private Book update(String isbn, String expectedETag, Consumer<Book> change) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Book book = bookRepository.findById(isbn)
+                            .orElseThrow(() -> new BookNotFoundException("Book not found with ISBN: " + isbn));
+                    if (expectedETag != null && !expectedETag.equals(BookETags.of(book))) {
+                        throw new PreconditionFailedException("Book " + isbn + " has changed since version " + expectedETag);
+                    }
+                    Book previous = book.copy();
+                    change.accept(book);
+                    Book saved = bookRepository.saveAndFlush(book);
+                    changePublisher.bookSaved(previous, saved.copy());
+                    return saved;
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (expectedETag != null) {
+                    throw new PreconditionFailedException("Book " + isbn + " has changed since version " + expectedETag);
+                }
+                if (attempt >= updateAttempts) {
+                    throw new ConcurrentUpdateException("Book " + isbn + " is being updated concurrently; gave up after "
+                            + attempt + " attempts");
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies many partial updates in one transaction. All targets are loaded with a single
+     * IN query and written back as one JDBC batch at commit. Items that fail validation or
+     * name an unknown ISBN are reported and skipped; the rest still apply.
+     */
+    @Transactional
+    public List<BookBatchResult> updateBooksPartial(List<BookPatchItem> items) {
+        Map<String, Book> books = loadForBatch(items.stream().map(BookPatchItem::getIsbn).collect(Collectors.toList()));
+        List<BookBatchResult> results = new ArrayList<>(items.size());
+        Map<Book, Book> changed = new IdentityHashMap<>();
+        for (BookPatchItem item : items) {
+            String error = item.getPatch() == null ? "patch: must not be null" : violations(item.getPatch());
+            results.add(applyToBatchItem(item.getIsbn(), books, error, changed, book -> applyPatch(book, item.getPatch())));
+        }
+        publishBatch(changed);
+        return results;
+    }
+
+    /**
+     * Batch counterpart of {@link #updateBook}, with the same per-item reporting as
+     * {@link #updateBooksPartial}.
+     */
+    @Transactional
+    public List<BookBatchResult> updateBooks(List<Book> updatedBooks) {
+        Map<String, Book> books = loadForBatch(updatedBooks.stream().map(Book::getIsbn).collect(Collectors.toList()));
+        List<BookBatchResult> results = new ArrayList<>(updatedBooks.size());
+        Map<Book, Book> changed = new IdentityHashMap<>();
+        for (Book updatedBook : updatedBooks) {
+            results.add(applyToBatchItem(updatedBook.getIsbn(), books, violations(updatedBook), changed,
+                    book -> applyUpdate(book, updatedBook)));
+        }
+        publishBatch(changed);
+        return results;
+    }
+
+    private Map<String, Book> loadForBatch(List<String> isbns) {
+        if (isbns.size() > MAX_PAGE_SIZE) {
+            throw new BadRequestException("A batch can update at most " + MAX_PAGE_SIZE + " books");
+        }
+        Map<String, Book> books = new HashMap<>();
+        for (Book book : bookRepository.findAllById(isbns.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList()))) {
+            books.put(book.getIsbn(), book);
+        }
+        return books;
+    }
+
+    private BookBatchResult applyToBatchItem(String isbn, Map<String, Book> books, String validationError,
+                                             Map<Book, Book> changed, Consumer<Book> change) {
+        if (validationError != null) {
+            return BookBatchResult.failed(isbn, 400, validationError);
         }
-        bookRepository.deleteById(isbn);
+        Book book = isbn == null ? null : books.get(isbn);
+        if (book == null) {
+            return BookBatchResult.failed(isbn, 404, "Book not found with ISBN: " + isbn);
+        }
+        changed.putIfAbsent(book, book.copy());
+        change.accept(book);
+        return BookBatchResult.updated(book);
+    }
+
+    /**
+     * Flushes the batch first, so the published books carry the versions the updates were
+     * written with. {@code changed} maps each managed book to its state before the batch.
+     */
+    private void publishBatch(Map<Book, Book> changed) {
+        bookRepository.flush();
+        changed.forEach((book, previous) -> changePublisher.bookSaved(previous, book.copy()));
+    }
+
+    private <T> String violations(T target) {
+        Set<ConstraintViolation<T>> violations = validator.validate(target);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static void applyUpdate(Book book, Book updatedBook) {
+        book.setTitle(updatedBook.getTitle());
+        book.setAuthor(updatedBook.getAuthor());
+        book.setPublicationYear(updatedBook.getPublicationYear());
+        book.setGenre(updatedBook.getGenre());
+        book.setCopiesAvailable(updatedBook.getCopiesAvailable());
+    }
+
+    /**
+     * Merge rules for partial updates: null or empty fields leave the current value unchanged.
+     */
+    private static void applyPatch(Book book, BookPatch patch) {
+        book.setTitle(patch.getTitle() == null || patch.getTitle().isEmpty() ? book.getTitle() : patch.getTitle());
+        book.setAuthor(patch.getAuthor() == null || patch.getAuthor().isEmpty() ? book.getAuthor() : patch.getAuthor());
+        book.setPublicationYear(patch.getPublicationYear() == null ? book.getPublicationYear() : patch.getPublicationYear());
+        book.setGenre(patch.getGenre() == null ? book.getGenre() : patch.getGenre());
+        book.setCopiesAvailable(patch.getCopiesAvailable() == null ? book.getCopiesAvailable() : patch.getCopiesAvailable());
+    }
+
+    /**
+     * Takes one copy off the shelf, failing with {@link com.library.exception.NoCopiesAvailableException}
+     * when none are left.
+     */
+    public void checkoutBook(String isbn) {
+        if (hotCopyPool.isHot(isbn)) {
+            hotCopyPool.checkout(isbn);
+        } else {
+            bookCopies.take(isbn, 1);
+        }
+    }
+
+    public void returnBook(String isbn) {
+        if (hotCopyPool.isHot(isbn)) {
+            hotCopyPool.giveBack(isbn);
+        } else {
+            bookCopies.put(isbn, 1);
+        }
+    }
+
+    public void deleteBook(String isbn) {
+        Book book = bookRepository.findById(isbn)
+                .orElseThrow(() -> new BookNotFoundException("Book not found with ISBN: " + isbn));
+        Book previous = book.copy();
+        bookRepository.delete(book);
+        changePublisher.bookDeleted(previous);
     }
 
     public List<Book> getBooksByIsbnRange(String startIsbn, String endIsbn) {
-        return bookRepository.findByIsbnBetweenOrderByIsbnAsc(startIsbn, endIsbn);
+        return getBooksByIsbnRange(startIsbn, endIsbn, BookFields.ALL);
+    }
+
+    /**
+     * Served from the columnar snapshot or the index file when either is enabled and ready,
+     * otherwise from the database.
+     */
+    public List<Book> getBooksByIsbnRange(String startIsbn, String endIsbn, BookFields fields) {
+        if (columns.isReady()) {
+            return columns.isbnRange(startIsbn, endIsbn);
+        }
+        List<Book> indexed = indexFile.isbnRange(startIsbn, endIsbn);
+        if (indexed != null) {
+            return indexed;
+        }
+        if (fields.isAll()) {
+            return bookRepository.findByIsbnBetweenOrderByIsbnAsc(startIsbn, endIsbn);
+        }
+        Sort sort = Sort.by("isbn");
+        return bookRepository.findProjected(BookSpecifications.isbnBetween(startIsbn, endIsbn), sort,
+                Limit.unlimited(), fields.properties(sort));
     }
 
     public List<Book> getAllBooksSortedByDesc(String field) {
-        switch(field){
-            case "year" -> {
-                return bookRepository.findAllByOrderByPublicationYearDesc();
-            }
-            case "title" -> {
-                return bookRepository.findAllByOrderByTitleDesc();
-            }
-            case "author" -> {
-                return bookRepository.findAllByOrderByAuthorDesc();
-            }
-            case "genre" -> {
-                return bookRepository.findAllByOrderByGenreDesc();
-            }
-            case "copies" -> {
-                return bookRepository.findAllByOrderByCopiesAvailableDesc();
-            }
-            default -> throw new IllegalArgumentException("Invalid sort parameter: " + field);
+        return getAllBooksSortedByDesc(field, BookFields.ALL);
+    }
+
+    /**
+     * Served from the columnar snapshot when it is enabled and built, otherwise from the database.
+     */
+    public List<Book> getAllBooksSortedByDesc(String field, BookFields fields) {
+        BookSort.Key key = BookSort.Key.fromParam(field);
+        if (columns.isReady()) {
+            return columns.sortedDescending(key);
+        }
+        Sort sort = BookSort.descending(key).toSort();
+        if (fields.isAll()) {
+            return bookRepository.findAll(sort);
+        }
+        return bookRepository.findProjected(Specification.allOf(), sort, Limit.unlimited(), fields.properties(sort));
+    }
+
+    /**
+     * One page of books matching the optional genre, year-range and author filters, in the
+     * requested multi-field order. Pages continue from the cursor's sort-key values rather
+     * than an offset, so with an index on the sort order a deep page costs the same as the
+     * first one.
+     */
+    public CursorPage<Book> queryBooks(BookQuery query) {
+        return queryBooks(query, BookFields.ALL);
+    }
+
+    /**
+     * {@link #queryBooks(BookQuery)} reading only the columns of {@code fields}, plus the sort keys.
+     */
+    public CursorPage<Book> queryBooks(BookQuery query, BookFields fields) {
+        int size = query.getSize();
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (query.getYearFrom() != null && query.getYearTo() != null && query.getYearFrom() > query.getYearTo()) {
+            throw new BadRequestException("yearFrom must not be after yearTo");
+        }
+        BookSort sort = BookSort.parse(query.getSort());
+        Specification<Book> spec = BookSpecifications.matching(query);
+        if (query.getCursor() != null && !query.getCursor().isEmpty()) {
+            spec = spec.and(BookSpecifications.after(sort, sort.decodeCursor(query.getCursor())));
         }
+        List<Book> books = fields.isAll()
+                ? bookRepository.findBy(spec, q -> q.sortBy(sort.toSort()).limit(size + 1).all())
+                : bookRepository.findProjected(spec, sort.toSort(), Limit.of(size + 1), fields.properties(sort.toSort()));
+        if (books.size() <= size) {
+            return new CursorPage<>(books, null);
+        }
+        List<Book> page = new ArrayList<>(books.subList(0, size));
+        return new CursorPage<>(page, sort.encodeCursor(page.get(size - 1)));
     }
 
     public List<Book> getTop3NewBooks() {
-       return bookRepository.findTop3ByOrderByPublicationYearDesc();
+       return getNewestBooks(3);
+    }
+
+    /**
+     * Newest books by publication year. Served from the in-memory view when {@code limit} fits
+     * within it; larger requests fall back to the database.
+     */
+    public List<Book> getNewestBooks(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (limit <= newestBooksView.capacity()) {
+            return newestBooksView.top(limit);
+        }
+        return bookRepository.findAllByOrderByPublicationYearDescIsbnAsc(Limit.of(limit));
+    }
+
+    /**
+     * Genre, decade and copy counts over the whole catalog, from in-memory counters.
+     */
+    public BookFacets getFacets() {
+        return facetCounters.facets();
     }
 
+	/**
+	 * Up to 10 books, by title, whose title has a word starting with each word of {@code keyword}
+	 * (case-insensitive). See {@link BookSearchIndex#searchTitles}.
+	 */
 	public List<Book> getTop10ByTitle(String keyword) {
-		return bookRepository.findTop10ByTitleContainingOrderByTitleAsc(keyword);
+		return searchIndex.searchTitles(keyword, 10);
+	}
+
+	/**
+	 * Ranked title and author search. Every query word must match; the last one also matches
+	 * as a prefix so partially typed queries work for typeahead.
+	 */
+	public List<Book> searchBooks(String query, int limit) {
+		if (limit < 1 || limit > BookSearchIndex.MAX_RESULTS) {
+			throw new BadRequestException("Limit must be between 1 and " + BookSearchIndex.MAX_RESULTS);
+		}
+		return searchIndex.search(query, limit);
 	}
 }
@@ -0,0 +1,199 @@
+package com.library.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.library.entity.Book;
+import com.library.entity.Genre;
+import com.library.exception.BadRequestException;
+
+/**
+ * A parsed multi-field sort order over books, always ending in ISBN so every row has a
+ * unique position. Also encodes and decodes keyset cursors: the sort-key values of the last
+ * row of a page, as base64url JSON.
+ *
+ * <p>Null genres follow H2's default null ordering: they sort before every value ascending
+ * and after every value descending.
+ */
+public final class BookSort {
+
+    public enum Key {
+        ISBN("isbn", "isbn", false),
+        YEAR("year", "publicationYear", false),
+        TITLE("title", "title", false),
+        AUTHOR("author", "author", false),
+        GENRE("genre", "genre", true),
+        COPIES("copies", "copiesAvailable", false);
+
+        private final String param;
+        private final String property;
+        private final boolean nullable;
+
+        Key(String param, String property, boolean nullable) {
+            this.param = param;
+            this.property = property;
+            this.nullable = nullable;
+        }
+
+        public String property() {
+            return property;
+        }
+
+        public boolean nullable() {
+            return nullable;
+        }
+
+        public static Key fromParam(String param) {
+            for (Key key : values()) {
+                if (key.param.equals(param.toLowerCase(Locale.ROOT))) {
+                    return key;
+                }
+            }
+            throw new BadRequestException("Invalid sort parameter: " + param);
+        }
+
+        private Object valueOf(Book book) {
+            return switch (this) {
+                case ISBN -> book.getIsbn();
+                case YEAR -> book.getPublicationYear();
+                case TITLE -> book.getTitle();
+                case AUTHOR -> book.getAuthor();
+                case GENRE -> book.getGenre();
+                case COPIES -> book.getCopiesAvailable();
+            };
+        }
+
+        private Object read(JsonNode node) {
+            if (node.isNull() && nullable) {
+                return null;
+            }
+            return switch (this) {
+                case YEAR, COPIES -> {
+                    if (!node.isInt()) {
+                        throw new BadRequestException("Invalid cursor");
+                    }
+                    yield node.intValue();
+                }
+                case GENRE -> {
+                    if (!node.isTextual()) {
+                        throw new BadRequestException("Invalid cursor");
+                    }
+                    try {
+                        yield Genre.valueOf(node.textValue());
+                    } catch (IllegalArgumentException e) {
+                        throw new BadRequestException("Invalid cursor");
+                    }
+                }
+                default -> {
+                    if (!node.isTextual()) {
+                        throw new BadRequestException("Invalid cursor");
+                    }
+                    yield node.textValue();
+                }
+            };
+        }
+    }
+
+    public record Field(Key key, boolean ascending) {
+    }
+
+    private static final ObjectMapper CURSOR_MAPPER = new ObjectMapper();
+
+    private final List<Field> fields;
+
+    private BookSort(List<Field> fields) {
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * Parses e.g. {@code "-year,title"}: newest first, then by title. A blank spec sorts by ISBN.
+     */
+    public static BookSort parse(String spec) {
+        List<Field> fields = new ArrayList<>();
+        Set<Key> seen = EnumSet.noneOf(Key.class);
+        if (spec != null && !spec.isBlank()) {
+            for (String part : spec.split(",")) {
+                String name = part.trim();
+                boolean ascending = !name.startsWith("-");
+                Key key = Key.fromParam(ascending ? name : name.substring(1));
+                if (!seen.add(key)) {
+                    throw new BadRequestException("Sort field listed more than once: " + key.param);
+                }
+                fields.add(new Field(key, ascending));
+            }
+        }
+        if (!seen.contains(Key.ISBN)) {
+            fields.add(new Field(Key.ISBN, true));
+        }
+        return new BookSort(fields);
+    }
+
+    public static BookSort descending(Key key) {
+        return parse("-" + key.param);
+    }
+
+    public List<Field> fields() {
+        return fields;
+    }
+
+    public Sort toSort() {
+        List<Sort.Order> orders = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+            orders.add(field.ascending() ? Sort.Order.asc(field.key().property) : Sort.Order.desc(field.key().property));
+        }
+        return Sort.by(orders);
+    }
+
+    public String encodeCursor(Book last) {
+        ArrayNode values = CURSOR_MAPPER.createArrayNode();
+        for (Field field : fields) {
+            Object value = field.key().valueOf(last);
+            if (value == null) {
+                values.addNull();
+            } else if (value instanceof Integer number) {
+                values.add(number);
+            } else {
+                values.add(value.toString());
+            }
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(CURSOR_MAPPER.writeValueAsBytes(values));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeCursor} for this same sort order.
+     */
+    public List<Object> decodeCursor(String cursor) {
+        JsonNode values;
+        try {
+            values = CURSOR_MAPPER.readTree(Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII)));
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (values == null || !values.isArray() || values.size() != fields.size()) {
+            throw new BadRequestException("Cursor does not match the requested sort order");
+        }
+        List<Object> decoded = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            decoded.add(fields.get(i).key().read(values.get(i)));
+        }
+        return decoded;
+    }
+
+}
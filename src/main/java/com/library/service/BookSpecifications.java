@@ -0,0 +1,98 @@
+package com.library.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.library.entity.Book;
+import com.library.entity.BookQuery;
+import com.library.entity.Genre;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Criteria building blocks for {@link BookService#queryBooks} and the projected listings.
+ */
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> matching(BookQuery query) {
+        List<Specification<Book>> specs = new ArrayList<>();
+        if (query.getGenre() != null) {
+            specs.add(hasGenre(query.getGenre()));
+        }
+        if (query.getYearFrom() != null) {
+            specs.add((root, q, cb) -> cb.greaterThanOrEqualTo(root.get("publicationYear"), query.getYearFrom()));
+        }
+        if (query.getYearTo() != null) {
+            specs.add((root, q, cb) -> cb.lessThanOrEqualTo(root.get("publicationYear"), query.getYearTo()));
+        }
+        if (query.getAuthor() != null && !query.getAuthor().isBlank()) {
+            specs.add(byAuthor(query.getAuthor().trim()));
+        }
+        return Specification.allOf(specs);
+    }
+
+    public static Specification<Book> hasGenre(Genre genre) {
+        return (root, query, cb) -> cb.equal(root.get("genre"), genre);
+    }
+
+    public static Specification<Book> byAuthor(String author) {
+        return (root, query, cb) -> cb.equal(root.get("author"), author);
+    }
+
+    public static Specification<Book> isbnAfter(String isbn) {
+        return (root, query, cb) -> cb.greaterThan(root.get("isbn"), isbn);
+    }
+
+    public static Specification<Book> isbnBetween(String startIsbn, String endIsbn) {
+        return (root, query, cb) -> cb.between(root.get("isbn"), startIsbn, endIsbn);
+    }
+
+    /**
+     * Rows strictly after the position {@code values} in {@code sort} order:
+     * {@code (k1 > v1) or (k1 = v1 and k2 > v2) or ...}, with each comparison flipped for
+     * descending fields.
+     */
+    public static Specification<Book> after(BookSort sort, List<Object> values) {
+        return (root, query, cb) -> {
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> equalPrefix = new ArrayList<>();
+            List<BookSort.Field> fields = sort.fields();
+            for (int i = 0; i < fields.size(); i++) {
+                BookSort.Field field = fields.get(i);
+                Path<Comparable<Object>> path = root.get(field.key().property());
+                Object value = values.get(i);
+                Predicate beyond = beyond(cb, path, value, field);
+                if (beyond != null) {
+                    List<Predicate> alternative = new ArrayList<>(equalPrefix);
+                    alternative.add(beyond);
+                    alternatives.add(cb.and(alternative.toArray(new Predicate[0])));
+                }
+                equalPrefix.add(value == null ? cb.isNull(path) : cb.equal(path, value));
+            }
+            return cb.or(alternatives.toArray(new Predicate[0]));
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate beyond(CriteriaBuilder cb, Path<Comparable<Object>> path, Object value,
+                                    BookSort.Field field) {
+        if (value == null) {
+            // Nulls sort lowest: everything non-null follows them ascending, nothing does descending.
+            return field.ascending() ? cb.isNotNull(path) : null;
+        }
+        Comparable<Object> comparable = (Comparable<Object>) value;
+        if (field.ascending()) {
+            return cb.greaterThan(path, comparable);
+        }
+        Predicate lower = cb.lessThan(path, comparable);
+        return field.key().nullable() ? cb.or(lower, cb.isNull(path)) : lower;
+    }
+
+}
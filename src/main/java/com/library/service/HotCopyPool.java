@@ -0,0 +1,120 @@
+package com.library.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.library.exception.NoCopiesAvailableException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional in-memory front for very hot titles, configured with
+ * {@code library.checkout.hot-isbns}. Copies are leased from the database in blocks of
+ * {@code library.checkout.lease-size} with the same guarded UPDATE as a single checkout, then
+ * handed out with a CAS on a local counter. Returns go back to the local pool. Unused copies
+ * are released to the database every {@code library.checkout.flush-interval-ms} and on shutdown.
+ *
+ * <p>Copies are only handed out after being leased, so this can never oversell. While a lease
+ * is held, the database shows fewer copies than are really on the shelf. If the process dies,
+ * copies leased but not yet handed out are lost from the count until corrected.
+ *
+ * <p>Leasing and flushing hold a {@link ReentrantLock} rather than a monitor. They do JDBC
+ * work while holding it, and a virtual thread blocked inside {@code synchronized} would pin
+ * its carrier thread.
+ */
+@Component
+public class HotCopyPool {
+
+    private final BookCopies bookCopies;
+
+    private final int leaseSize;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    public HotCopyPool(BookCopies bookCopies,
+                       @Value("${library.checkout.hot-isbns:}") List<String> hotIsbns,
+                       @Value("${library.checkout.lease-size:16}") int leaseSize) {
+        this.bookCopies = bookCopies;
+        this.leaseSize = leaseSize;
+        for (String isbn : hotIsbns) {
+            if (!isbn.isBlank()) {
+                pools.put(isbn.trim(), new Pool());
+            }
+        }
+    }
+
+    public boolean isHot(String isbn) {
+        return pools.containsKey(isbn);
+    }
+
+    public void checkout(String isbn) {
+        Pool pool = pools.get(isbn);
+        AtomicInteger available = pool.available;
+        while (true) {
+            int current = available.get();
+            if (current > 0) {
+                if (available.compareAndSet(current, current - 1)) {
+                    return;
+                }
+                continue;
+            }
+            pool.lock.lock();
+            try {
+                if (available.get() > 0) {
+                    continue;
+                }
+                int leased = bookCopies.takeUpTo(isbn, leaseSize);
+                if (leased == 0) {
+                    throw new NoCopiesAvailableException("No copies of ISBN " + isbn + " are available");
+                }
+                available.addAndGet(leased - 1);
+                return;
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+    }
+
+    public void giveBack(String isbn) {
+        pools.get(isbn).available.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${library.checkout.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        pools.forEach((isbn, pool) -> {
+            pool.lock.lock();
+            try {
+                int unused = pool.available.getAndSet(0);
+                if (unused > 0) {
+                    try {
+                        bookCopies.put(isbn, unused);
+                    } catch (RuntimeException e) {
+                        pool.available.addAndGet(unused);
+                        throw e;
+                    }
+                }
+            } finally {
+                pool.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Copies leased for one title, and the lock held while leasing more or flushing them back.
+     */
+    private static final class Pool {
+
+        private final AtomicInteger available = new AtomicInteger();
+
+        private final ReentrantLock lock = new ReentrantLock();
+    }
+
+}
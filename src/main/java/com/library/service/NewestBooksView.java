@@ -0,0 +1,40 @@
+package com.library.service;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+
+/**
+ * The newest books by publication year, ISBN ascending within a year.
+ */
+@Component
+public class NewestBooksView extends TopBooksView {
+
+    private final BookRepository bookRepository;
+
+    public NewestBooksView(BookRepository bookRepository,
+                           @Value("${library.views.newest.capacity:100}") int capacity) {
+        super(capacity, Comparator.comparingInt(Book::getPublicationYear).reversed()
+                .thenComparing(Book::getIsbn));
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reload();
+    }
+
+    @Override
+    protected List<Book> load(int limit) {
+        return bookRepository.findAllByOrderByPublicationYearDescIsbnAsc(Limit.of(limit));
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.library.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import com.library.entity.Book;
+
+/**
+ * Merges an ISBN-ordered base, such as {@link BookColumns}' arrays or {@link BookIndexFile}'s
+ * mapped entries, with the pending changes made to it since it was built.
+ */
+final class PendingChanges {
+
+    /**
+     * Compares the ISBN of a base row with {@code isbn} as {@link String#compareTo} would.
+     */
+    @FunctionalInterface
+    interface IsbnOrder {
+        int compare(int row, String isbn);
+    }
+
+    private PendingChanges() {
+    }
+
+    /**
+     * Walks base rows {@code from} (inclusive) to {@code to} (exclusive) and {@code changes}
+     * together in ISBN order. Passes each row no change replaces to {@code row}, and each
+     * changed book that was not deleted (null) to {@code changed}.
+     */
+    static void merge(int from, int to, IsbnOrder base, NavigableMap<String, Book> changes,
+                      IntConsumer row, Consumer<Book> changed) {
+        Iterator<Map.Entry<String, Book>> pending = changes.entrySet().iterator();
+        Map.Entry<String, Book> change = pending.hasNext() ? pending.next() : null;
+        int next = from;
+        while (next < to || change != null) {
+            int order = next == to ? 1 : change == null ? -1 : base.compare(next, change.getKey());
+            if (order < 0) {
+                row.accept(next++);
+                continue;
+            }
+            if (order == 0) {
+                next++;
+            }
+            if (change.getValue() != null) {
+                changed.accept(change.getValue());
+            }
+            change = pending.hasNext() ? pending.next() : null;
+        }
+    }
+
+}
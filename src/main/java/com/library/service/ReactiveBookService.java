@@ -0,0 +1,122 @@
+package com.library.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import com.library.entity.Book;
+import com.library.entity.BookPatch;
+import com.library.entity.BookQuery;
+import com.library.entity.CursorPage;
+import com.library.exception.BadRequestException;
+import com.library.repository.ReactiveBookRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@link BookService} operations as {@link Mono}/{@link Flux} for the WebFlux stack.
+ *
+ * <p>Listings that can be large are read over R2DBC and streamed with backpressure. Everything
+ * else still goes through {@link BookService} on the bounded elastic scheduler: writes, so the
+ * book cache, views and search index see them, and lookups served from memory. The event loop
+ * never blocks on JDBC.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookService {
+
+    private final BookService bookService;
+
+    private final ReactiveBookRepository reactiveBookRepository;
+
+    public ReactiveBookService(BookService bookService, ReactiveBookRepository reactiveBookRepository) {
+        this.bookService = bookService;
+        this.reactiveBookRepository = reactiveBookRepository;
+    }
+
+    public Flux<Book> getBooks() {
+        return reactiveBookRepository.findAll(BookSort.parse(null).toSort());
+    }
+
+    public Mono<CursorPage<Book>> getBooksPage(String afterIsbn, int size) {
+        if (size < 1 || size > BookService.MAX_PAGE_SIZE) {
+            return Mono.error(new BadRequestException("Page size must be between 1 and " + BookService.MAX_PAGE_SIZE));
+        }
+        return reactiveBookRepository.findByIsbnGreaterThanOrderByIsbnAsc(afterIsbn == null ? "" : afterIsbn, size + 1)
+                .collectList()
+                .map(books -> {
+                    if (books.size() <= size) {
+                        return new CursorPage<>(books, null);
+                    }
+                    List<Book> page = new ArrayList<>(books.subList(0, size));
+                    return new CursorPage<>(page, page.get(size - 1).getIsbn());
+                });
+    }
+
+    public Flux<Book> getBooksByIsbnRange(String startIsbn, String endIsbn) {
+        return reactiveBookRepository.findByIsbnBetweenOrderByIsbnAsc(startIsbn, endIsbn);
+    }
+
+    public Flux<Book> getAllBooksSortedByDesc(String field) {
+        return Flux.defer(() -> reactiveBookRepository.findAll(
+                BookSort.descending(BookSort.Key.fromParam(field)).toSort()));
+    }
+
+    public Mono<Book> getBookByISBN(String isbn) {
+        return blocking(() -> bookService.getBookByISBN(isbn));
+    }
+
+    public Mono<Book> createBook(Book book) {
+        return blocking(() -> bookService.createBook(book));
+    }
+
+    public Mono<Book> updateBook(String isbn, Book book) {
+        return blocking(() -> bookService.updateBook(isbn, book));
+    }
+
+    public Mono<Book> updateBookPartial(String isbn, BookPatch patch) {
+        return blocking(() -> bookService.updateBookPartial(isbn, patch));
+    }
+
+    public Mono<Void> deleteBook(String isbn) {
+        return blockingVoid(() -> bookService.deleteBook(isbn));
+    }
+
+    public Mono<Void> checkoutBook(String isbn) {
+        return blockingVoid(() -> bookService.checkoutBook(isbn));
+    }
+
+    public Mono<Void> returnBook(String isbn) {
+        return blockingVoid(() -> bookService.returnBook(isbn));
+    }
+
+    public Mono<CursorPage<Book>> queryBooks(BookQuery query) {
+        return blocking(() -> bookService.queryBooks(query));
+    }
+
+    public Mono<List<Book>> getNewestBooks(int limit) {
+        return blocking(() -> bookService.getNewestBooks(limit));
+    }
+
+    public Mono<List<Book>> getTop10ByTitle(String keyword) {
+        return blocking(() -> bookService.getTop10ByTitle(keyword));
+    }
+
+    public Mono<List<Book>> searchBooks(String query, int limit) {
+        return blocking(() -> bookService.searchBooks(query, limit));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Mono<Void> blockingVoid(Runnable action) {
+        return Mono.<Void>fromRunnable(action).subscribeOn(Schedulers.boundedElastic());
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.library.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.library.entity.Book;
+import com.library.exception.BadRequestException;
+
+/**
+ * Incrementally maintained "top N by X" view over the catalog. Holds at most {@code capacity}
+ * books in a sorted set ordered by {@code order}, which must break ties on ISBN so that no two
+ * books compare equal. Writes are applied as they commit; the view only goes back to the
+ * database when a member leaves or falls past its tail while books outside the view may now
+ * qualify, and then lazily on the next read.
+ *
+ * <p>Guarded by a {@link ReentrantLock} instead of {@code synchronized} because a reload
+ * queries the database under the lock, which would pin a virtual thread's carrier.
+ */
+public abstract class TopBooksView implements BookChangeListener {
+
+    private final int capacity;
+
+    private final TreeSet<Book> top;
+
+    private final Map<String, Book> members = new HashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** True until the first load, and again whenever the view can no longer be trusted. */
+    private boolean stale = true;
+
+    /** True when the catalog may hold books that rank below the view and were left out. */
+    private boolean truncated;
+
+    protected TopBooksView(int capacity, Comparator<Book> order) {
+        this.capacity = capacity;
+        this.top = new TreeSet<>(order);
+    }
+
+    /**
+     * Loads the first {@code limit} books in view order from the database.
+     */
+    protected abstract List<Book> load(int limit);
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public List<Book> top(int n) {
+        if (n < 1 || n > capacity) {
+            throw new BadRequestException("Limit must be between 1 and " + capacity);
+        }
+        lock.lock();
+        try {
+            if (stale) {
+                reload();
+            }
+            List<Book> result = new ArrayList<>(Math.min(n, top.size()));
+            for (Book book : top) {
+                if (result.size() == n) {
+                    break;
+                }
+                result.add(book);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void reload() {
+        lock.lock();
+        try {
+            List<Book> books = load(capacity);
+            top.clear();
+            members.clear();
+            for (Book book : books) {
+                Book copy = book.copy();
+                top.add(copy);
+                members.put(copy.getIsbn(), copy);
+            }
+            truncated = books.size() >= capacity;
+            stale = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bookSaved(Book previous, Book current) {
+        lock.lock();
+        try {
+            if (!replace(current)) {
+                offer(current);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bookDeleted(Book previous) {
+        lock.lock();
+        try {
+            remove(previous.getIsbn());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Updates a member in place. A member that keeps or improves its rank, or still ranks above
+     * the retained tail, stays; a copies-only change such as a checkout never moves it. Only
+     * one that falls past the tail of a truncated view marks it stale, since books the view
+     * left out may now rank above it. Returns false if the book was not a member.
+     */
+    private boolean replace(Book book) {
+        Book member = members.remove(book.getIsbn());
+        if (member == null) {
+            return false;
+        }
+        top.remove(member);
+        if (stale) {
+            return true;
+        }
+        Comparator<? super Book> order = top.comparator();
+        if (order.compare(book, member) <= 0 || !truncated || !top.isEmpty() && order.compare(book, top.last()) < 0) {
+            top.add(book);
+            members.put(book.getIsbn(), book);
+        } else {
+            stale = true;
+        }
+        return true;
+    }
+
+    /**
+     * Drops a member, marking the view stale if that left a gap only the database can fill.
+     */
+    private void remove(String isbn) {
+        Book member = members.remove(isbn);
+        if (member != null) {
+            top.remove(member);
+            if (truncated) {
+                stale = true;
+            }
+        }
+    }
+
+    private void offer(Book book) {
+        if (stale) {
+            return;
+        }
+        if (top.size() < capacity) {
+            top.add(book);
+            members.put(book.getIsbn(), book);
+            return;
+        }
+        truncated = true;
+        if (top.comparator().compare(book, top.last()) < 0) {
+            top.add(book);
+            members.put(book.getIsbn(), book);
+            members.remove(top.pollLast().getIsbn());
+        }
+    }
+
+}
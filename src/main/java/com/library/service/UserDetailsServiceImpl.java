@@ -1,27 +1,48 @@
 package com.library.service;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
+
+import com.library.entity.CursorPage;
+import com.library.entity.Role;
 import com.library.entity.User;
+import com.library.entity.UserSummary;
+import com.library.exception.BadRequestException;
+import com.library.exception.DuplicateUsernameException;
 import com.library.repository.UserRepository;
+import com.library.security.AuthenticationCache;
+import com.library.security.RoleAuthorities;
 
 
 @Service
+@Timed("library.users.service")
 public class UserDetailsServiceImpl implements UserDetailsService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private UserRepository userRepository;
     private PasswordEncoder passwordEncoder;
+    private AuthenticationCache authenticationCache;
 
-    public UserDetailsServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserDetailsServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                                  AuthenticationCache authenticationCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.authenticationCache = authenticationCache;
     }
 
     @Override
@@ -33,7 +54,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return org.springframework.security.core.userdetails.User.builder()
             .username(user.getUsername())
             .password(user.getPassword())
-            .roles(user.getRoles().toArray(new String[0]))
+            .authorities(RoleAuthorities.of(user.getRoleMask()))
             .build();
         
     }
@@ -42,10 +63,62 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return userRepository.findAll();
     }
 
+    /**
+     * Returns up to {@code size} user summaries in id order, starting strictly after
+     * {@code afterId}, or from the first user when it is null. Seeks on the primary key, so a
+     * deep page costs the same as the first.
+     */
+    public CursorPage<UserSummary> getUsersPage(Long afterId, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<UserSummary> users = afterId == null
+                ? userRepository.findSummaries(Limit.of(size + 1))
+                : userRepository.findSummariesAfter(afterId, Limit.of(size + 1));
+        if (users.size() <= size) {
+            return new CursorPage<>(users, null);
+        }
+        List<UserSummary> page = new ArrayList<>(users.subList(0, size));
+        return new CursorPage<>(page, page.get(size - 1).getId().toString());
+    }
+
+    /**
+     * Feeds every user summary to {@code action} in id order without materializing the table.
+     */
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<UserSummary> action) {
+        try (Stream<UserSummary> users = userRepository.streamSummaries()) {
+            users.forEach(action);
+        }
+    }
+
+    /**
+     * Saves {@code user} as an admin. Throws {@link DuplicateUsernameException} if another user
+     * already has the username, including one inserted concurrently.
+     */
     public User saveUser(User user) {
+        if (takenByAnotherUser(user)) {
+            throw new DuplicateUsernameException("Username " + user.getUsername() + " already exists");
+        }
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        user.setRoles(Arrays.asList("ADMIN"));
-        return userRepository.save(user);
-    }   
+        user.setRoles(EnumSet.of(Role.ADMIN));
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (takenByAnotherUser(user)) {
+                throw new DuplicateUsernameException("Username " + user.getUsername() + " already exists");
+            }
+            throw e;
+        }
+        authenticationCache.invalidate(saved.getUsername());
+        return saved;
+    }
+
+    private boolean takenByAnotherUser(User user) {
+        return userRepository.findByUsername(user.getUsername())
+                .filter(existing -> !existing.getId().equals(user.getId()))
+                .isPresent();
+    }
 
 }
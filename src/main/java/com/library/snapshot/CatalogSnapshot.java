@@ -0,0 +1,396 @@
+package com.library.snapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Binary snapshot of the {@code book} and {@code users} tables, for restoring a catalog
+ * without replaying SQL.
+ *
+ * <p>The file is a header, every book in ISBN order, every user in id order, and a CRC32C of
+ * everything before it. Each row starts with a marker byte and each table ends with an end
+ * marker. Strings are UTF-8 after a short length, -1 for null. Rows go from a forward-only
+ * result set through a direct buffer to a {@link FileChannel}, so memory use does not grow
+ * with the catalog.
+ *
+ * <p>An export reads both tables in one serializable transaction and writes a temporary file
+ * that is renamed into place. A restore checks the whole file's checksum before it touches the
+ * database, then empties both tables and inserts in JDBC batches, each committed on its own:
+ * one transaction over a million rows leaves H2's MVStore file several times larger than the
+ * data. A database error partway through leaves the tables partly restored; run the restore
+ * again. It bypasses the services, so the in-memory views of a running application do not see
+ * it; {@link CatalogSnapshotCommand} runs it only in a process that exits without serving.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final int MAGIC = 0x4C42_534E;
+    private static final int FORMAT = 1;
+
+    private static final byte ROW = 1;
+    private static final byte END = 0;
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    /**
+     * More than any one row can take: every column is at most 255 characters.
+     */
+    private static final int MAX_ROW_BYTES = 8 * 1024;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String SELECT_BOOKS = "select isbn, title, author, publication_year, genre, copies, "
+            + "version, last_modified from book order by isbn";
+    private static final String SELECT_USERS = "select id, username, password, email, role_mask from users order by id";
+    private static final String INSERT_BOOK = "insert into book (isbn, title, author, publication_year, genre, copies, "
+            + "version, last_modified) values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER = "insert into users (id, username, password, email, role_mask) "
+            + "values (?, ?, ?, ?, ?)";
+
+    public record Counts(long books, long users) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readTransaction;
+
+    public CatalogSnapshot(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+    }
+
+    /**
+     * Writes both tables to {@code file}, replacing it only once the snapshot is complete.
+     */
+    public Counts export(Path file) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Counts counts = readTransaction.execute(status -> jdbcTemplate.execute((ConnectionCallback<Counts>) connection -> {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                Counts written = write(connection, channel);
+                channel.force(true);
+                return written;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return counts;
+    }
+
+    /**
+     * Replaces the contents of both tables with the snapshot in {@code file}. Nothing changes
+     * if the file is damaged or incomplete.
+     */
+    public Counts restore(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            verify(channel);
+            channel.position(0);
+            return jdbcTemplate.execute((ConnectionCallback<Counts>) connection -> {
+                try {
+                    return read(channel, connection);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Counts write(Connection connection, FileChannel channel) throws SQLException, IOException {
+        Output out = new Output(channel);
+        out.buffer.putInt(MAGIC).putInt(FORMAT);
+        long books = 0;
+        try (PreparedStatement select = forwardOnly(connection, SELECT_BOOKS);
+             ResultSet rows = select.executeQuery()) {
+            while (rows.next()) {
+                out.reserve(MAX_ROW_BYTES);
+                out.buffer.put(ROW);
+                out.string(rows.getString(1));
+                out.string(rows.getString(2));
+                out.string(rows.getString(3));
+                out.buffer.putInt(rows.getInt(4));
+                out.string(rows.getString(5));
+                out.buffer.putInt(rows.getInt(6));
+                out.buffer.putLong(rows.getLong(7));
+                Instant modified = rows.getObject(8, OffsetDateTime.class).toInstant();
+                out.buffer.putLong(modified.getEpochSecond()).putInt(modified.getNano());
+                books++;
+            }
+        }
+        out.reserve(1);
+        out.buffer.put(END);
+        long users = 0;
+        try (PreparedStatement select = forwardOnly(connection, SELECT_USERS);
+             ResultSet rows = select.executeQuery()) {
+            while (rows.next()) {
+                out.reserve(MAX_ROW_BYTES);
+                out.buffer.put(ROW);
+                out.buffer.putLong(rows.getLong(1));
+                out.string(rows.getString(2));
+                out.string(rows.getString(3));
+                out.string(rows.getString(4));
+                out.buffer.putInt(rows.getInt(5));
+                users++;
+            }
+        }
+        out.reserve(1);
+        out.buffer.put(END);
+        out.finish();
+        return new Counts(books, users);
+    }
+
+    private static Counts read(FileChannel channel, Connection connection) throws SQLException, IOException {
+        Input in = new Input(channel);
+        in.require(8);
+        if (in.buffer.getInt() != MAGIC || in.buffer.getInt() != FORMAT) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        long books = 0;
+        long users = 0;
+        long lastUserId = 0;
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("truncate table book");
+            statement.executeUpdate("truncate table users");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_BOOK)) {
+            while (in.row()) {
+                insert.setString(1, in.string());
+                insert.setString(2, in.string());
+                insert.setString(3, in.string());
+                insert.setInt(4, in.buffer.getInt());
+                String genre = in.string();
+                if (genre == null) {
+                    insert.setNull(5, Types.VARCHAR);
+                } else {
+                    insert.setString(5, genre);
+                }
+                insert.setInt(6, in.buffer.getInt());
+                insert.setLong(7, in.buffer.getLong());
+                long seconds = in.buffer.getLong();
+                insert.setObject(8, Instant.ofEpochSecond(seconds, in.buffer.getInt()).atOffset(ZoneOffset.UTC));
+                insert.addBatch();
+                if (++books % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_USER)) {
+            while (in.row()) {
+                lastUserId = in.buffer.getLong();
+                insert.setLong(1, lastUserId);
+                insert.setString(2, in.string());
+                insert.setString(3, in.string());
+                insert.setString(4, in.string());
+                insert.setInt(5, in.buffer.getInt());
+                insert.addBatch();
+                if (++users % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        in.verify();
+        try (Statement statement = connection.createStatement()) {
+            // Ids were inserted explicitly; new users continue after the highest one.
+            statement.execute("alter table users alter column id restart with " + (lastUserId + 1));
+        }
+        return new Counts(books, users);
+    }
+
+    /**
+     * Checks the trailing checksum against the rest of the file.
+     */
+    private static void verify(FileChannel channel) throws IOException {
+        long end = channel.size() - 4;
+        if (end < 8) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        CRC32C crc = new CRC32C();
+        long position = 0;
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(BUFFER_BYTES, end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Catalog snapshot is truncated");
+            }
+            position += read;
+            crc.update(buffer.flip());
+        }
+        ByteBuffer checksum = ByteBuffer.allocate(4);
+        while (checksum.hasRemaining()) {
+            if (channel.read(checksum, end + checksum.position()) < 0) {
+                throw new IOException("Catalog snapshot is truncated");
+            }
+        }
+        if (checksum.flip().getInt() != (int) crc.getValue()) {
+            throw new IOException("Catalog snapshot checksum does not match");
+        }
+    }
+
+    private static PreparedStatement forwardOnly(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(BATCH_SIZE);
+        return statement;
+    }
+
+    /**
+     * Buffered channel writer that checksums everything it writes.
+     */
+    private static final class Output {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final CRC32C crc = new CRC32C();
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void string(String value) {
+            if (value == null) {
+                buffer.putShort((short) -1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue()).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Buffered channel reader that checksums everything it hands out.
+     */
+    private static final class Input {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).flip();
+        private final CRC32C crc = new CRC32C();
+
+        /**
+         * Start of the bytes read from the buffer but not yet checksummed.
+         */
+        private int checked;
+
+        private Input(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Makes at least {@code bytes} bytes available, reading more of the file if needed.
+         */
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            checksumConsumed();
+            buffer.compact();
+            checked = 0;
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Catalog snapshot is truncated");
+                }
+            }
+            buffer.flip();
+        }
+
+        /**
+         * Reads the marker before a row: true for a row, false at the end of a table. The
+         * whole row is buffered once this returns true.
+         */
+        private boolean row() throws IOException {
+            require(1);
+            byte marker = buffer.get();
+            if (marker == END) {
+                return false;
+            }
+            if (marker != ROW) {
+                throw new IOException("Catalog snapshot is damaged");
+            }
+            long available = channel.size() - channel.position() + buffer.remaining();
+            require((int) Math.min(MAX_ROW_BYTES, available));
+            return true;
+        }
+
+        private String string() {
+            short length = buffer.getShort();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void verify() throws IOException {
+            checksumConsumed();
+            require(4);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                throw new IOException("Catalog snapshot checksum does not match");
+            }
+        }
+
+        private void checksumConsumed() {
+            crc.update(buffer.duplicate().limit(buffer.position()).position(checked));
+            checked = buffer.position();
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.library.snapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.library.service.BookIndexFile;
+
+/**
+ * Runs a snapshot export or restore instead of serving, when started with
+ * {@code --snapshot-export=<file>} or {@code --snapshot-restore=<file>}, then exits with
+ * status 0 on success and 1 on failure.
+ *
+ * <p>Runners are called once the context has started, after views such as
+ * {@link com.library.service.BookFacetCounters} have loaded the catalog, so they do not see a
+ * restore. That is only safe because nothing is served before the process exits: with a web
+ * server running, the command refuses to run. A restore also deletes the on-disk ISBN index,
+ * which the next start rebuilds.
+ */
+@Component
+public class CatalogSnapshotCommand implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotCommand.class);
+
+    private static final String EXPORT = "snapshot-export";
+    private static final String RESTORE = "snapshot-restore";
+
+    private final CatalogSnapshot catalogSnapshot;
+
+    private final BookIndexFile bookIndexFile;
+
+    private final ConfigurableApplicationContext context;
+
+    public CatalogSnapshotCommand(CatalogSnapshot catalogSnapshot, BookIndexFile bookIndexFile,
+                                  ConfigurableApplicationContext context) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.bookIndexFile = bookIndexFile;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean export = args.containsOption(EXPORT);
+        boolean restore = args.containsOption(RESTORE);
+        if (!export && !restore) {
+            return;
+        }
+        int status = 0;
+        try {
+            if (context instanceof WebServerApplicationContext) {
+                throw new IllegalStateException("Snapshot commands must not run while serving requests; "
+                        + "start with --spring.main.web-application-type=none");
+            }
+            if (export && restore) {
+                throw new IllegalArgumentException("Pass only one of --" + EXPORT + " and --" + RESTORE);
+            }
+            Path file = file(args, export ? EXPORT : RESTORE);
+            long start = System.nanoTime();
+            if (restore) {
+                bookIndexFile.delete();
+            }
+            CatalogSnapshot.Counts counts = export ? catalogSnapshot.export(file) : catalogSnapshot.restore(file);
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            log.info("{} {} books and {} users {} {} in {} ms ({} rows/s)", export ? "Exported" : "Restored",
+                    counts.books(), counts.users(), export ? "to" : "from", file, millis,
+                    (counts.books() + counts.users()) * 1000 / millis);
+        } catch (IOException | RuntimeException e) {
+            log.error("Catalog snapshot failed", e);
+            status = 1;
+        }
+        int exitCode = status;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static Path file(ApplicationArguments args, String option) {
+        List<String> values = args.getOptionValues(option);
+        if (values == null || values.size() != 1 || values.get(0).isBlank()) {
+            throw new IllegalArgumentException("--" + option + " needs exactly one file");
+        }
+        return Path.of(values.get(0));
+    }
+
+}
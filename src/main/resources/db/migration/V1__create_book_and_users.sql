@@ -0,0 +1,18 @@
+-- Baseline schema, matching what Hibernate generated from the entities under ddl-auto=update.
+
+CREATE TABLE book (
+    isbn             VARCHAR(13)  NOT NULL PRIMARY KEY,
+    title            VARCHAR(100) NOT NULL,
+    author           VARCHAR(50)  NOT NULL,
+    publication_year INTEGER      NOT NULL,
+    genre            VARCHAR(20),
+    copies           INTEGER      NOT NULL
+);
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    email    VARCHAR(255),
+    roles    VARCHAR(255) ARRAY
+);
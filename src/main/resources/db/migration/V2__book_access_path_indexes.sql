@@ -0,0 +1,26 @@
+-- One index per BookRepository access path so none of them needs a full scan followed by a sort.
+-- ISBN lookups, ranges and ISBN-ordered paging already use the primary key.
+-- H2 only uses an index for ORDER BY when the index direction matches the query's direction.
+-- The descending sort endpoints therefore get DESC indexes.
+
+-- findAllByOrderByPublicationYearDesc and findAllByOrderByPublicationYearDescIsbnAsc (newest books)
+CREATE INDEX idx_book_publication_year_desc ON book (publication_year DESC, isbn);
+
+-- findAllByOrderByTitleDesc
+CREATE INDEX idx_book_title_desc ON book (title DESC);
+
+-- findTop10ByTitleContainingOrderByTitleAsc: LIKE '%keyword%' cannot seek, but walking this index
+-- returns rows already in title order, so the scan stops after the first 10 matches.
+CREATE INDEX idx_book_title ON book (title);
+
+-- findAllByOrderByAuthorDesc
+CREATE INDEX idx_book_author_desc ON book (author DESC);
+
+-- findAllByOrderByGenreDesc
+CREATE INDEX idx_book_genre_desc ON book (genre DESC);
+
+-- findAllByOrderByCopiesAvailableDesc
+CREATE INDEX idx_book_copies_desc ON book (copies DESC);
+
+-- UserRepository.findByUsername, on every login
+CREATE UNIQUE INDEX ux_users_username ON users (username);
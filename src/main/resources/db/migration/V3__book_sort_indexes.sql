@@ -0,0 +1,28 @@
+-- Index both directions of every sortable field for GET /books/query. Each sort ends in isbn
+-- to give rows a unique keyset position, so the indexes carry isbn as a suffix.
+-- The single-column sort indexes from V2 are replaced; idx_book_publication_year_desc already
+-- has this shape.
+
+DROP INDEX idx_book_title_desc;
+DROP INDEX idx_book_title;
+DROP INDEX idx_book_author_desc;
+DROP INDEX idx_book_genre_desc;
+DROP INDEX idx_book_copies_desc;
+
+CREATE INDEX idx_book_publication_year ON book (publication_year, isbn);
+
+-- Also serves findTop10ByTitleContainingOrderByTitleAsc
+CREATE INDEX idx_book_title ON book (title, isbn);
+CREATE INDEX idx_book_title_desc ON book (title DESC, isbn);
+
+CREATE INDEX idx_book_author ON book (author, isbn);
+CREATE INDEX idx_book_author_desc ON book (author DESC, isbn);
+
+CREATE INDEX idx_book_genre ON book (genre, isbn);
+CREATE INDEX idx_book_genre_desc ON book (genre DESC, isbn);
+
+CREATE INDEX idx_book_copies ON book (copies, isbn);
+CREATE INDEX idx_book_copies_desc ON book (copies DESC, isbn);
+
+-- The primary key only serves ascending ISBN order
+CREATE INDEX idx_book_isbn_desc ON book (isbn DESC);
@@ -0,0 +1,5 @@
+-- Every write bumps version and stamps last_modified; together they make the book's ETag.
+-- Existing rows start at version 0 as of this migration.
+
+ALTER TABLE book ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE book ADD COLUMN last_modified TIMESTAMP(6) WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
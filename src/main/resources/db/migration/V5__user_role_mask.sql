@@ -0,0 +1,7 @@
+-- Roles move from a VARCHAR array to a bitmask of Role bits (USER = 1, ADMIN = 2), read with
+-- the rest of the row. Role names other than USER and ADMIN were never assigned and are dropped.
+
+ALTER TABLE users ADD COLUMN role_mask INTEGER DEFAULT 0 NOT NULL;
+UPDATE users SET role_mask = role_mask + 1 WHERE ARRAY_CONTAINS(roles, 'USER');
+UPDATE users SET role_mask = role_mask + 2 WHERE ARRAY_CONTAINS(roles, 'ADMIN');
+ALTER TABLE users DROP COLUMN roles;
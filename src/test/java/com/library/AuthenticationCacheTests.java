@@ -0,0 +1,161 @@
+package com.library;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.library.entity.User;
+import com.library.repository.UserRepository;
+import com.library.security.AuthenticationCache;
+import com.library.security.CachingAuthenticationProvider;
+import com.library.service.UserDetailsServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuthenticationCacheTests {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    /**
+     * Runs inside the next verification, after it has started and before it returns.
+     */
+    private Runnable duringVerification = () -> { };
+
+    private final AuthenticationProvider delegate = new AuthenticationProvider() {
+        @Override
+        public Authentication authenticate(Authentication authentication) {
+            verifications.incrementAndGet();
+            Runnable during = duringVerification;
+            duringVerification = () -> { };
+            during.run();
+            if (!"secret".equals(authentication.getCredentials())) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(authentication.getName(), null,
+                    List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        }
+
+        @Override
+        public boolean supports(Class<?> authentication) {
+            return true;
+        }
+    };
+
+    @Test
+    void repeatedCredentials_AreVerifiedOnce() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CachingAuthenticationProvider provider = provider(cache(registry, Duration.ofMinutes(5)), registry);
+
+        Authentication first = provider.authenticate(credentials("alice", "secret"));
+        Authentication second = provider.authenticate(credentials("alice", "secret"));
+
+        Assertions.assertThat(second).isSameAs(first);
+        Assertions.assertThat(verifications.get()).isEqualTo(1);
+        Assertions.assertThat(registry.get("library.auth.verification").timer().count()).isEqualTo(1);
+        Assertions.assertThat(registry.get("cache.gets").tag("cache", "authentications").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void wrongPassword_IsNeverCachedNorServedFromCache() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CachingAuthenticationProvider provider = provider(cache(registry, Duration.ofMinutes(5)), registry);
+        provider.authenticate(credentials("alice", "secret"));
+
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThatThrownBy(() -> provider.authenticate(credentials("alice", "guess")))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+
+        Assertions.assertThat(verifications.get()).isEqualTo(3);
+    }
+
+    @Test
+    void savingUser_ForgetsItsCachedVerifications() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuthenticationCache cache = cache(registry, Duration.ofMinutes(5));
+        CachingAuthenticationProvider provider = provider(cache, registry);
+        UserDetailsServiceImpl userService = userService(cache);
+        provider.authenticate(credentials("alice", "secret"));
+        provider.authenticate(credentials("bob", "secret"));
+
+        userService.saveUser(user("alice"));
+        provider.authenticate(credentials("alice", "secret"));
+        provider.authenticate(credentials("bob", "secret"));
+
+        Assertions.assertThat(verifications.get()).isEqualTo(3);
+    }
+
+    @Test
+    void verificationOverlappingPasswordChange_IsNotCached() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuthenticationCache cache = cache(registry, Duration.ofMinutes(5));
+        CachingAuthenticationProvider provider = provider(cache, registry);
+        UserDetailsServiceImpl userService = userService(cache);
+        duringVerification = () -> userService.saveUser(user("alice"));
+
+        provider.authenticate(credentials("alice", "secret"));
+        provider.authenticate(credentials("alice", "secret"));
+        provider.authenticate(credentials("alice", "secret"));
+
+        Assertions.assertThat(verifications.get()).as("only the check after the change is cached").isEqualTo(2);
+    }
+
+    @Test
+    void expiredEntries_AreVerifiedAgain() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CachingAuthenticationProvider provider = provider(cache(registry, Duration.ofMillis(50)), registry);
+
+        provider.authenticate(credentials("alice", "secret"));
+        Thread.sleep(100);
+        provider.authenticate(credentials("alice", "secret"));
+
+        Assertions.assertThat(verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    void key_DependsOnBothUsernameAndPassword() {
+        AuthenticationCache cache = cache(new SimpleMeterRegistry(), Duration.ofMinutes(5));
+
+        Assertions.assertThat(cache.key("alice", "secret")).isEqualTo(cache.key("alice", "secret"))
+                .isNotEqualTo(cache.key("alice", "secret2"))
+                .isNotEqualTo(cache.key("alicesecret", ""))
+                .isNotEqualTo(cache(new SimpleMeterRegistry(), Duration.ofMinutes(5)).key("alice", "secret"));
+    }
+
+    private static UserDetailsServiceImpl userService(AuthenticationCache cache) {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.save(Mockito.any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        return new UserDetailsServiceImpl(userRepository, new BCryptPasswordEncoder(4), cache);
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("changed");
+        return user;
+    }
+
+    private CachingAuthenticationProvider provider(AuthenticationCache cache, SimpleMeterRegistry registry) {
+        return new CachingAuthenticationProvider(delegate, cache, registry);
+    }
+
+    private static AuthenticationCache cache(SimpleMeterRegistry registry, Duration ttl) {
+        return new AuthenticationCache(registry, 100, ttl);
+    }
+
+    private static UsernamePasswordAuthenticationToken credentials(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+
+}
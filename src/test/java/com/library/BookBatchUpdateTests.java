@@ -0,0 +1,104 @@
+package com.library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.library.entity.Book;
+import com.library.entity.BookBatchResult;
+import com.library.entity.BookPatch;
+import com.library.entity.BookPatchItem;
+import com.library.entity.Genre;
+import com.library.exception.BadRequestException;
+import com.library.repository.BookRepository;
+import com.library.service.BookService;
+
+/**
+ * Every item of a batch gets its own result, in request order, and a bad item does not stop
+ * the others from being applied.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:batchupdatedb")
+class BookBatchUpdateTests {
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Test
+    void batchPatch_ReportsEachItemAndAppliesTheValidOnes() {
+        bookService.createBook(book("BATCHP0001", "First", 1));
+        bookService.createBook(book("BATCHP0002", "Second", 2));
+        long version = bookRepository.findById("BATCHP0001").orElseThrow().getVersion();
+
+        List<BookBatchResult> results = bookService.updateBooksPartial(List.of(
+                new BookPatchItem("BATCHP0001", patch("First, patched", null)),
+                new BookPatchItem("BATCHMISS1", patch("Nobody", null)),
+                new BookPatchItem("BATCHP0002", null),
+                new BookPatchItem("BATCHP0002", patch(null, 1700)),
+                new BookPatchItem(null, patch("No ISBN", null)),
+                new BookPatchItem("BATCHP0002", patch(null, 1999))));
+
+        Assertions.assertThat(results).extracting(BookBatchResult::getIsbn, BookBatchResult::getStatus).containsExactly(
+                Assertions.tuple("BATCHP0001", 200),
+                Assertions.tuple("BATCHMISS1", 404),
+                Assertions.tuple("BATCHP0002", 400),
+                Assertions.tuple("BATCHP0002", 400),
+                Assertions.tuple(null, 404),
+                Assertions.tuple("BATCHP0002", 200));
+        Assertions.assertThat(results.get(2).getError()).isEqualTo("patch: must not be null");
+        Assertions.assertThat(results.get(3).getError()).startsWith("publicationYear:");
+        Assertions.assertThat(results.get(1).getBook()).isNull();
+
+        Book patched = bookRepository.findById("BATCHP0001").orElseThrow();
+        Assertions.assertThat(patched.getTitle()).isEqualTo("First, patched");
+        Assertions.assertThat(patched.getVersion()).isEqualTo(version + 1);
+        Assertions.assertThat(results.get(0).getBook().getVersion()).isEqualTo(version + 1);
+        Assertions.assertThat(bookRepository.findById("BATCHP0002").orElseThrow().getPublicationYear()).isEqualTo(1999);
+        Assertions.assertThat(bookService.getBookByISBN("BATCHP0002").getPublicationYear()).isEqualTo(1999);
+    }
+
+    @Test
+    void batchPut_ReportsEachItemAndAppliesTheValidOnes() {
+        bookService.createBook(book("BATCHU0001", "Before", 1));
+        bookService.createBook(book("BATCHU0002", "Untouched", 1));
+
+        Book invalid = book("BATCHU0002", "", 1);
+        List<BookBatchResult> results = bookService.updateBooks(List.of(
+                book("BATCHU0001", "After", 4), invalid, book("BATCHMISS2", "Nobody", 1)));
+
+        Assertions.assertThat(results).extracting(BookBatchResult::getStatus).containsExactly(200, 400, 404);
+        Assertions.assertThat(results.get(1).getError()).startsWith("title:");
+        Assertions.assertThat(results.get(2).getError()).isEqualTo("Book not found with ISBN: BATCHMISS2");
+        Assertions.assertThat(bookService.getBookByISBN("BATCHU0001").getCopiesAvailable()).isEqualTo(4);
+        Assertions.assertThat(bookService.getBookByISBN("BATCHU0002").getTitle()).isEqualTo("Untouched");
+        Assertions.assertThat(bookRepository.existsById("BATCHMISS2")).isFalse();
+    }
+
+    @Test
+    void oversizedBatch_IsRejectedWhole() {
+        List<BookPatchItem> items = new ArrayList<>(Arrays.asList(new BookPatchItem[BookService.MAX_PAGE_SIZE + 1]));
+        items.replaceAll(item -> new BookPatchItem("BATCHP0001", patch("Too many", null)));
+
+        Assertions.assertThatThrownBy(() -> bookService.updateBooksPartial(items))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static BookPatch patch(String title, Integer publicationYear) {
+        BookPatch patch = new BookPatch();
+        patch.setTitle(title);
+        patch.setPublicationYear(publicationYear);
+        return patch;
+    }
+
+    private static Book book(String isbn, String title, int copies) {
+        return new Book(isbn, title, "Batch Author", 2005, Genre.NON_FICTION, copies);
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.library;
+
+import static com.library.StatementCountAssertions.assertAtMostStatements;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.library.entity.Book;
+import com.library.entity.BookPatch;
+import com.library.entity.Genre;
+import com.library.exception.BookNotFoundException;
+import com.library.service.BookService;
+
+/**
+ * Lookups by ISBN are served from the cache once loaded, and every committed write replaces
+ * or drops the cached entry, so a cached read never returns a stale or rolled-back book.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bookcachedb")
+class BookCacheTests {
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void repeatedLookup_IsServedFromCache() throws Exception {
+        bookService.createBook(book("CACHE00001", "Cached", 2));
+        bookService.getBookByISBN("CACHE00001");
+
+        assertAtMostStatements(0, () -> Assertions.assertThat(bookService.getBookByISBN("CACHE00001").getTitle())
+                .isEqualTo("Cached"));
+    }
+
+    @Test
+    void writes_ReplaceCachedBook() throws Exception {
+        bookService.createBook(book("CACHE00002", "Before", 2));
+        bookService.getBookByISBN("CACHE00002");
+
+        bookService.updateBook("CACHE00002", book("CACHE00002", "After update", 3));
+        assertAtMostStatements(0, () -> Assertions.assertThat(bookService.getBookByISBN("CACHE00002").getTitle())
+                .isEqualTo("After update"));
+
+        BookPatch patch = new BookPatch();
+        patch.setTitle("After patch");
+        bookService.updateBookPartial("CACHE00002", patch);
+        bookService.checkoutBook("CACHE00002");
+        assertAtMostStatements(0, () -> {
+            Book cached = bookService.getBookByISBN("CACHE00002");
+            Assertions.assertThat(cached.getTitle()).isEqualTo("After patch");
+            Assertions.assertThat(cached.getCopiesAvailable()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void delete_DropsCachedBook() {
+        bookService.createBook(book("CACHE00003", "Deleted", 1));
+        bookService.getBookByISBN("CACHE00003");
+
+        bookService.deleteBook("CACHE00003");
+
+        Assertions.assertThatThrownBy(() -> bookService.getBookByISBN("CACHE00003"))
+                .isInstanceOf(BookNotFoundException.class);
+    }
+
+    @Test
+    void create_ReplacesCachedMiss() throws Exception {
+        Assertions.assertThatThrownBy(() -> bookService.getBookByISBN("CACHE00004"))
+                .isInstanceOf(BookNotFoundException.class);
+        assertAtMostStatements(0, () -> Assertions.assertThatThrownBy(() -> bookService.getBookByISBN("CACHE00004"))
+                .isInstanceOf(BookNotFoundException.class));
+
+        bookService.createBook(book("CACHE00004", "Created after a miss", 1));
+
+        assertAtMostStatements(0, () -> Assertions.assertThat(bookService.getBookByISBN("CACHE00004").getTitle())
+                .isEqualTo("Created after a miss"));
+    }
+
+    @Test
+    void rolledBackWrite_LeavesCacheUnchanged() {
+        bookService.createBook(book("CACHE00005", "Committed", 1));
+        bookService.getBookByISBN("CACHE00005");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookService.updateBook("CACHE00005", book("CACHE00005", "Rolled back", 1));
+            status.setRollbackOnly();
+        });
+
+        Assertions.assertThat(bookService.getBookByISBN("CACHE00005").getTitle()).isEqualTo("Committed");
+    }
+
+    private static Book book(String isbn, String title, int copies) {
+        return new Book(isbn, title, "Cache Tester", 2010, Genre.FICTION, copies);
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.library;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.library.entity.Book;
+import com.library.entity.Genre;
+import com.library.exception.NoCopiesAvailableException;
+import com.library.repository.BookRepository;
+import com.library.service.BookService;
+import com.library.service.HotCopyPool;
+
+/**
+ * Hammers checkout with many more requests than copies and checks that exactly the available
+ * copies were handed out, both through the guarded UPDATE and through the hot-title pool.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:checkoutdb;LOCK_TIMEOUT=10000",
+        "library.checkout.hot-isbns=HOTBOOK001",
+        "library.checkout.lease-size=8"
+})
+class BookCheckoutConcurrencyTests {
+
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 10;
+    private static final int COPIES = 150;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    HotCopyPool hotCopyPool;
+
+    @Test
+    void concurrentCheckouts_NeverOversell() throws Exception {
+        bookService.createBook(new Book("CHECKOUT01", "Concurrency in Practice", "Brian Goetz", 2006, Genre.NON_FICTION, COPIES));
+
+        int checkedOut = checkoutConcurrently("CHECKOUT01");
+
+        Assertions.assertThat(checkedOut).isEqualTo(COPIES);
+        Assertions.assertThat(bookRepository.findById("CHECKOUT01").orElseThrow().getCopiesAvailable()).isZero();
+    }
+
+    @Test
+    void concurrentCheckoutsOfHotTitle_NeverOversell() throws Exception {
+        bookService.createBook(new Book("HOTBOOK001", "Java Performance", "Scott Oaks", 2020, Genre.NON_FICTION, COPIES));
+
+        int checkedOut = checkoutConcurrently("HOTBOOK001");
+        hotCopyPool.flush();
+
+        Assertions.assertThat(checkedOut).isEqualTo(COPIES);
+        Assertions.assertThat(bookRepository.findById("HOTBOOK001").orElseThrow().getCopiesAvailable()).isZero();
+    }
+
+    @Test
+    void concurrentCheckoutsAndReturns_KeepCountExact() throws Exception {
+        bookService.createBook(new Book("RETURNS001", "Java Concurrency", "Doug Lea", 1999, Genre.NON_FICTION, 10));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger outstanding = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        bookService.checkoutBook("RETURNS001");
+                        outstanding.incrementAndGet();
+                        bookService.returnBook("RETURNS001");
+                        outstanding.decrementAndGet();
+                    } catch (NoCopiesAvailableException e) {
+                        // every copy is out right now; try again
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        Assertions.assertThat(outstanding.get()).isZero();
+        Assertions.assertThat(bookRepository.findById("RETURNS001").orElseThrow().getCopiesAvailable()).isEqualTo(10);
+    }
+
+    private int checkoutConcurrently(String isbn) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        bookService.checkoutBook(isbn);
+                        succeeded.incrementAndGet();
+                    } catch (NoCopiesAvailableException e) {
+                        refused.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        Assertions.assertThat(succeeded.get() + refused.get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD);
+        return succeeded.get();
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.library;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import com.library.entity.Book;
+import com.library.entity.BookPatch;
+import com.library.entity.Genre;
+import com.library.repository.BookRepository;
+import com.library.service.BookCatalogScanner;
+import com.library.service.BookColumns;
+import com.library.service.BookFields;
+import com.library.service.BookService;
+import com.library.service.BookSort;
+
+/**
+ * Checks that range scans and sorted listings served from the columnar snapshot return the
+ * same books in the same order as the database, before and after writes.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:columnsdb",
+        "library.views.columnar.enabled=true"
+})
+class BookColumnsTests {
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    BookColumns columns;
+
+    @Autowired
+    BookCatalogScanner catalogScanner;
+
+    @Test
+    void snapshotReads_MatchDatabase() {
+        Assertions.assertThat(columns.isReady()).isTrue();
+        for (int i = 0; i < 40; i++) {
+            bookService.createBook(new Book("COLUMN" + String.format("%04d", i), "Title " + i % 7, "Author " + i % 5,
+                    1990 + i % 9, i % 6 == 0 ? null : Genre.values()[i % Genre.values().length], i % 4));
+        }
+        assertMatchesDatabase();
+
+        BookPatch patch = new BookPatch();
+        patch.setTitle("Renamed");
+        patch.setPublicationYear(1850);
+        bookService.updateBookPartial("COLUMN0003", patch);
+        bookService.checkoutBook("COLUMN0005");
+        bookService.deleteBook("COLUMN0010");
+        assertMatchesDatabase();
+    }
+
+    @Test
+    void writeDuringSeed_DoesNotWaitAndIsApplied() {
+        Book written = new Book("COLUMNRACE", "Written Mid-Scan", "Column Author", 2021, Genre.FICTION, 2);
+        AtomicReference<BookColumns> seeded = new AtomicReference<>();
+        AtomicBoolean writtenDuringScan = new AtomicBoolean();
+        BookCatalogScanner scanner = new BookCatalogScanner(null, null) {
+            @Override
+            public void forEachBook(Consumer<Book> action) {
+                catalogScanner.forEachBook(action);
+                Thread writer = Thread.ofPlatform().start(() -> seeded.get().bookSaved(null, written));
+                try {
+                    writtenDuringScan.set(writer.join(Duration.ofSeconds(5)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        seeded.set(new BookColumns(scanner, true));
+
+        seeded.get().seed();
+
+        Assertions.assertThat(writtenDuringScan).isTrue();
+        Assertions.assertThat(seeded.get().isbnRange("COLUMNRACE", "COLUMNRACE")).containsExactly(written);
+    }
+
+    private void assertMatchesDatabase() {
+        Assertions.assertThat(withoutVersions(bookService.getBooksByIsbnRange("COLUMN0005", "COLUMN0030", BookFields.ALL)))
+                .isEqualTo(withoutVersions(bookRepository.findByIsbnBetweenOrderByIsbnAsc("COLUMN0005", "COLUMN0030")));
+        for (BookSort.Key key : BookSort.Key.values()) {
+            Sort sort = BookSort.descending(key).toSort();
+            Assertions.assertThat(withoutVersions(bookService.getAllBooksSortedByDesc(key.name(), BookFields.ALL)))
+                    .as("sorted by %s", key)
+                    .isEqualTo(withoutVersions(bookRepository.findAll(sort)));
+        }
+    }
+
+    /**
+     * The snapshot does not keep versions or modification times, which listings never expose.
+     */
+    private static List<Book> withoutVersions(List<Book> books) {
+        return books.stream()
+                .map(book -> new Book(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublicationYear(),
+                        book.getGenre(), book.getCopiesAvailable()))
+                .toList();
+    }
+
+}
@@ -1,30 +1,43 @@
 package com.library;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.library.controller.BookControllerV1;
+import com.library.controller.BookController;
 import com.library.entity.Book;
 import com.library.entity.BookPatch;
+import com.library.entity.BookQuery;
+import com.library.entity.CursorPage;
 import com.library.entity.Genre;
+import com.library.exception.BadRequestException;
 import com.library.exception.DuplicateIsbnException;
+import com.library.service.BookETags;
+import com.library.service.BookFields;
+import com.library.service.BookFields.Field;
+import com.library.service.BookImportService;
 import com.library.service.BookService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(BookControllerV1.class)
+@WebMvcTest(BookController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(BookETags.class)
 class BookControllerTests {
 
     private Book sampleBook;
@@ -35,9 +48,15 @@ class BookControllerTests {
     @MockitoBean
     private BookService bookService;
 
+    @MockitoBean
+    private BookImportService bookImportService;
+
     @Autowired
     ObjectMapper objectMapper;
 
+    @Autowired
+    BookETags bookETags;
+
     @BeforeEach
     void setup() {
         sampleBook = new Book();
@@ -74,7 +93,7 @@ class BookControllerTests {
     void createBook_DuplicateIsbn_ReturnsConflict() throws Exception {
         Mockito.when(bookService.createBook(any(Book.class)))
                 .thenThrow(new DuplicateIsbnException("ISBN already exists"));
-        mockMvc.perform(post("/books")
+        mockMvc.perform(post("/api/v1/books")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(sampleBook)))
                 .andExpect(status().isConflict())
@@ -83,12 +102,46 @@ class BookControllerTests {
 
     @Test
     void getAllBooks_ReturnsListOfBooks() throws Exception {
-        Mockito.when(bookService.getBooks()).thenReturn(Collections.singletonList(sampleBook));
+        Mockito.when(bookService.getBooks(BookFields.ALL)).thenReturn(Collections.singletonList(sampleBook));
     mockMvc.perform(get("/api/v1/books"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].isbn").value(sampleBook.getIsbn()));
     }
 
+    @Test
+    void getBooksPage_ReturnsItemsAndNextCursor() throws Exception {
+        Mockito.when(bookService.getBooksPage(null, 1, BookFields.ALL))
+                .thenReturn(new CursorPage<>(Collections.singletonList(sampleBook), sampleBook.getIsbn()));
+    mockMvc.perform(get("/api/v1/books/page").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].isbn").value(sampleBook.getIsbn()))
+                .andExpect(jsonPath("$.nextCursor").value(sampleBook.getIsbn()));
+    }
+
+    @Test
+    void getBooksPage_InvalidSize_ReturnsBadRequest() throws Exception {
+        Mockito.when(bookService.getBooksPage(null, 0, BookFields.ALL))
+                .thenThrow(new BadRequestException("Page size must be between 1 and 1000"));
+    mockMvc.perform(get("/api/v1/books/page").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBooksPage_UnexpectedIllegalArgument_ReturnsServerError() throws Exception {
+        Mockito.when(bookService.getBooksPage(null, 10, BookFields.ALL))
+                .thenThrow(new IllegalArgumentException("No enum constant"));
+    mockMvc.perform(get("/api/v1/books/page").param("size", "10"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void getNewestBooks_UsesRequestedLimit() throws Exception {
+        Mockito.when(bookService.getNewestBooks(5)).thenReturn(Collections.singletonList(sampleBook));
+    mockMvc.perform(get("/api/v1/books/newest").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].isbn").value(sampleBook.getIsbn()));
+    }
+
     @Test
     void getBookByISBN_Found_ReturnsBook() throws Exception {
         Mockito.when(bookService.getBookByISBN(sampleBook.getIsbn())).thenReturn(sampleBook);
@@ -106,7 +159,7 @@ class BookControllerTests {
 
     @Test
     void updateBook_ValidInput_ReturnsUpdatedBook() throws Exception {
-        Mockito.when(bookService.updateBook(Mockito.eq(sampleBook.getIsbn()), any(Book.class))).thenReturn(sampleBook);
+        Mockito.when(bookService.updateBook(Mockito.eq(sampleBook.getIsbn()), any(Book.class), Mockito.isNull())).thenReturn(sampleBook);
     mockMvc.perform(put("/api/v1/books/{isbn}", sampleBook.getIsbn())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(sampleBook)))
@@ -116,13 +169,35 @@ class BookControllerTests {
 
     @Test
     void updateBook_NotFound_ReturnsNotFound() throws Exception {
-        Mockito.when(bookService.updateBook(Mockito.eq("notfound"), any(Book.class))).thenThrow(new com.library.exception.BookNotFoundException("Book not found"));
+        Mockito.when(bookService.updateBook(Mockito.eq("notfound"), any(Book.class), Mockito.isNull())).thenThrow(new com.library.exception.BookNotFoundException("Book not found"));
     mockMvc.perform(put("/api/v1/books/{isbn}", "notfound")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(sampleBook)))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void updateBook_IfMatch_PassesTagAndReturnsNewETag() throws Exception {
+        Mockito.when(bookService.updateBook(Mockito.eq(sampleBook.getIsbn()), any(Book.class), Mockito.eq("3-abc"))).thenReturn(sampleBook);
+    mockMvc.perform(put("/api/v1/books/{isbn}", sampleBook.getIsbn())
+                        .header(HttpHeaders.IF_MATCH, "\"3-abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sampleBook)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + BookETags.of(sampleBook) + "\""));
+    }
+
+    @Test
+    void updateBook_StaleIfMatch_ReturnsPreconditionFailed() throws Exception {
+        Mockito.when(bookService.updateBook(Mockito.eq(sampleBook.getIsbn()), any(Book.class), Mockito.eq("1-abc")))
+                .thenThrow(new com.library.exception.PreconditionFailedException("Book has changed"));
+    mockMvc.perform(put("/api/v1/books/{isbn}", sampleBook.getIsbn())
+                        .header(HttpHeaders.IF_MATCH, "\"1-abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sampleBook)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void updateBookPartial_ValidInput_ReturnsUpdatedBook() throws Exception {
         BookPatch patch = new BookPatch();
@@ -131,7 +206,7 @@ class BookControllerTests {
         patch.setPublicationYear(null);
         patch.setGenre(null);
         patch.setCopiesAvailable(null);
-        Mockito.when(bookService.updateBookPartial(Mockito.eq(sampleBook.getIsbn()), any(BookPatch.class))).thenReturn(sampleBook);
+        Mockito.when(bookService.updateBookPartial(Mockito.eq(sampleBook.getIsbn()), any(BookPatch.class), Mockito.isNull())).thenReturn(sampleBook);
     mockMvc.perform(patch("/api/v1/books/{isbn}", sampleBook.getIsbn())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(patch)))
@@ -163,7 +238,7 @@ class BookControllerTests {
         book2.setGenre(Genre.FICTION);
         book2.setCopiesAvailable(2);
         List<Book> books = Arrays.asList(sampleBook, book2);
-        Mockito.when(bookService.getBooksByIsbnRange("9781234567890", "9781234567891")).thenReturn(books);
+        Mockito.when(bookService.getBooksByIsbnRange("9781234567890", "9781234567891", BookFields.ALL)).thenReturn(books);
     mockMvc.perform(get("/api/v1/books/isbn-range")
                         .param("startIsbn", "9781234567890")
                         .param("endIsbn", "9781234567891"))
@@ -172,4 +247,97 @@ class BookControllerTests {
                 .andExpect(jsonPath("$[1].isbn").value("9781234567891"));
     }
 
+    @Test
+    void queryBooks_BindsFiltersAndSort() throws Exception {
+        Mockito.when(bookService.queryBooks(any(BookQuery.class), Mockito.eq(BookFields.ALL)))
+                .thenReturn(new CursorPage<>(Collections.singletonList(sampleBook), "next"));
+    mockMvc.perform(get("/api/v1/books/query")
+                        .param("genre", "FICTION")
+                        .param("yearFrom", "1900")
+                        .param("yearTo", "1950")
+                        .param("sort", "-year,title")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].isbn").value("9781234567890"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+        Mockito.verify(bookService).queryBooks(Mockito.argThat(query -> query.getGenre() == Genre.FICTION
+                && query.getYearFrom() == 1900 && query.getYearTo() == 1950
+                && "-year,title".equals(query.getSort()) && query.getSize() == 1), Mockito.eq(BookFields.ALL));
+    }
+
+    @Test
+    void queryBooks_InvalidSort_ReturnsBadRequest() throws Exception {
+        Mockito.when(bookService.queryBooks(any(BookQuery.class), Mockito.eq(BookFields.ALL)))
+                .thenThrow(new BadRequestException("Invalid sort parameter: pages"));
+    mockMvc.perform(get("/api/v1/books/query").param("sort", "pages"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBooksPage_V2Fields_ReturnsOnlyRequestedProperties() throws Exception {
+        Mockito.when(bookService.getBooksPage(Mockito.isNull(), Mockito.eq(1),
+                        Mockito.argThat(fields -> fields.fields().equals(EnumSet.of(Field.ISBN, Field.TITLE)))))
+                .thenReturn(new CursorPage<>(Collections.singletonList(sampleBook), "9781234567890"));
+    mockMvc.perform(get("/api/v2/books/page").param("size", "1").param("fields", "title,isbn"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].isbn").value("9781234567890"))
+                .andExpect(jsonPath("$.items[0].title").value("The Great Gatsby"))
+                .andExpect(jsonPath("$.items[0].author").doesNotExist())
+                .andExpect(jsonPath("$.items[0].copiesAvailable").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("9781234567890"));
+    }
+
+    @Test
+    void getBookByISBN_V1Fields_ReturnsWholeBook() throws Exception {
+        Mockito.when(bookService.getBookByISBN(sampleBook.getIsbn())).thenReturn(sampleBook);
+    mockMvc.perform(get("/api/v1/books/{isbn}", sampleBook.getIsbn()).param("fields", "title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isbn").value("9781234567890"))
+                .andExpect(jsonPath("$.author").value("F. Scott Fitzgerald"));
+    }
+
+    @Test
+    void getAllBooks_UnknownField_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(get("/api/v2/books").param("fields", "isbn,pages"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBookByISBN_CurrentETag_ReturnsNotModifiedWithoutLookup() throws Exception {
+        Mockito.when(bookService.getBookByISBN(sampleBook.getIsbn())).thenReturn(sampleBook);
+        String eTag = mockMvc.perform(get("/api/v2/books/{isbn}", sampleBook.getIsbn()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/api/v2/books/{isbn}", sampleBook.getIsbn()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        Mockito.verify(bookService, Mockito.times(1)).getBookByISBN(sampleBook.getIsbn());
+    }
+
+    @Test
+    void getAllBooks_CurrentCatalogETag_ReturnsNotModifiedWithoutQuery() throws Exception {
+        Mockito.when(bookService.getBooks(BookFields.ALL)).thenReturn(Collections.singletonList(sampleBook));
+        String eTag = mockMvc.perform(get("/api/v2/books"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/api/v2/books").header(HttpHeaders.IF_NONE_MATCH, "W/" + eTag))
+                .andExpect(status().isNotModified());
+        Mockito.verify(bookService, Mockito.times(1)).getBooks(BookFields.ALL);
+    }
+
+    @Test
+    void getAllBooks_AfterWrite_ETagChanges() throws Exception {
+        Mockito.when(bookService.getBooks(BookFields.ALL)).thenReturn(Collections.singletonList(sampleBook));
+        String eTag = mockMvc.perform(get("/api/v2/books"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        bookETags.bookSaved(null, sampleBook);
+
+    mockMvc.perform(get("/api/v2/books").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].isbn").value("9781234567890"));
+    }
+
 }
@@ -0,0 +1,69 @@
+package com.library;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.library.entity.Book;
+import com.library.entity.BookFacets;
+import com.library.entity.BookPatch;
+import com.library.entity.Genre;
+import com.library.service.BookFacetCounters;
+import com.library.service.BookService;
+
+/**
+ * Drives every kind of write through {@link BookService} and checks after each one that the
+ * incrementally maintained facets equal a fresh count from the database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:facetsdb")
+class BookFacetCountersTests {
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    BookFacetCounters facetCounters;
+
+    @Test
+    void writes_KeepFacetsExact() {
+        BookFacets before = bookService.getFacets();
+
+        bookService.createBook(new Book("FACET00001", "Gaudy Night", "Dorothy L. Sayers", 1935, Genre.MYSTERY, 4));
+        BookFacets created = assertMatchesDatabase();
+        Assertions.assertThat(created.getTotalBooks()).isEqualTo(before.getTotalBooks() + 1);
+        Assertions.assertThat(created.getTotalCopies()).isEqualTo(before.getTotalCopies() + 4);
+        Assertions.assertThat(created.getGenres().get("MYSTERY")).isEqualTo(before.getGenres().get("MYSTERY") + 1);
+        Assertions.assertThat(created.getDecades().get(1930)).isEqualTo(before.getDecades().get(1930) + 1);
+
+        BookPatch patch = new BookPatch();
+        patch.setGenre(Genre.FICTION);
+        patch.setPublicationYear(1972);
+        bookService.updateBookPartial("FACET00001", patch);
+        BookFacets patched = assertMatchesDatabase();
+        Assertions.assertThat(patched.getGenres().get("MYSTERY")).isEqualTo(before.getGenres().get("MYSTERY"));
+        Assertions.assertThat(patched.getDecades().get(1970)).isEqualTo(before.getDecades().get(1970) + 1);
+
+        bookService.checkoutBook("FACET00001");
+        Assertions.assertThat(assertMatchesDatabase().getTotalCopies()).isEqualTo(before.getTotalCopies() + 3);
+
+        bookService.createBook(new Book("FACET00002", "Untitled", "Anonymous", 2001, null, 1));
+        Assertions.assertThat(assertMatchesDatabase().getGenres().get("NONE")).isEqualTo(before.getGenres().get("NONE") + 1);
+
+        bookService.deleteBook("FACET00001");
+        bookService.deleteBook("FACET00002");
+        Assertions.assertThat(assertMatchesDatabase()).isEqualTo(before);
+    }
+
+    /**
+     * Compares the maintained facets with a re-seed from the database, leaving the re-seeded
+     * counters in place.
+     */
+    private BookFacets assertMatchesDatabase() {
+        BookFacets maintained = bookService.getFacets();
+        facetCounters.seed();
+        Assertions.assertThat(maintained).isEqualTo(bookService.getFacets());
+        return maintained;
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.library;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.library.entity.Book;
+import com.library.entity.BookImportReport;
+import com.library.entity.BookImportReport.RowError;
+import com.library.entity.Genre;
+import com.library.exception.BadRequestException;
+import com.library.repository.BookRepository;
+import com.library.service.BookImportService;
+import com.library.service.BookService;
+
+/**
+ * Imports with a chunk size of 3, so every test crosses chunk boundaries.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bookimportdb",
+        "library.import.chunk-size=3"
+})
+class BookImportServiceTests {
+
+    @Autowired
+    BookImportService bookImportService;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @MockitoSpyBean
+    BookRepository bookRepository;
+
+    @Test
+    void csv_ImportsRowsInAnyColumnOrderWithQuotedFields() throws Exception {
+        BookImportReport report = bookImportService.importCsv(input("""
+                copiesAvailable,genre,isbn,title,author,publicationYear
+                2,fiction,IMPCSV0001,"Small Gods, Again",Terry Pratchett,1992
+
+                0,,IMPCSV0002,"The ""Quoted"" Title",Anonymous,1901
+                5,SCI_FI,IMPCSV0003,Solaris,Stanisław Lem,1961
+                1,MYSTERY,IMPCSV0004,Gaudy Night,Dorothy L. Sayers,1935
+                """));
+
+        Assertions.assertThat(report.getReceived()).isEqualTo(4);
+        Assertions.assertThat(report.getImported()).isEqualTo(4);
+        Assertions.assertThat(report.getFailed()).isZero();
+        Book quoted = bookService.getBookByISBN("IMPCSV0002");
+        Assertions.assertThat(quoted.getTitle()).isEqualTo("The \"Quoted\" Title");
+        Assertions.assertThat(quoted.getGenre()).isNull();
+        Assertions.assertThat(bookService.getBookByISBN("IMPCSV0001").getTitle()).isEqualTo("Small Gods, Again");
+        Assertions.assertThat(bookService.getBookByISBN("IMPCSV0003").getGenre()).isEqualTo(Genre.SCI_FI);
+    }
+
+    @Test
+    void csv_MissingColumn_IsRejected() {
+        Assertions.assertThatThrownBy(() -> bookImportService.importCsv(input("isbn,title,author,genre,copiesAvailable\n")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("publicationyear");
+    }
+
+    @Test
+    void json_ImportsArrayAndReportsMalformedObjects() throws Exception {
+        BookImportReport report = bookImportService.importJson(input("""
+                [
+                  {"isbn": "IMPJSN0001", "title": "Kindred", "author": "Octavia E. Butler", "publicationYear": 1979,
+                   "genre": "FICTION", "copiesAvailable": 3},
+                  {"isbn": "IMPJSN0002", "title": "Bad Year", "author": "Anonymous", "publicationYear": "soon",
+                   "genre": "FICTION", "copiesAvailable": 1},
+                  {"isbn": "IMPJSN0003", "title": "Unknown Genre", "author": "Anonymous", "publicationYear": 1990,
+                   "genre": "POETRY", "copiesAvailable": 1},
+                  {"isbn": "IMPJSN0004", "title": "Dune", "author": "Frank Herbert", "publicationYear": 1965,
+                   "genre": "SCI_FI", "copiesAvailable": 2}
+                ]
+                """));
+
+        Assertions.assertThat(report.getReceived()).isEqualTo(4);
+        Assertions.assertThat(report.getImported()).isEqualTo(2);
+        Assertions.assertThat(report.getErrors()).extracting(RowError::getRow, RowError::getIsbn)
+                .containsExactly(Assertions.tuple(2L, "IMPJSN0002"), Assertions.tuple(3L, "IMPJSN0003"));
+        Assertions.assertThat(report.getErrors()).allSatisfy(error ->
+                Assertions.assertThat(error.getMessage()).startsWith("Malformed book"));
+        Assertions.assertThat(bookService.getBookByISBN("IMPJSN0004").getTitle()).isEqualTo("Dune");
+    }
+
+    @Test
+    void json_NotAnArray_IsRejected() {
+        Assertions.assertThatThrownBy(() -> bookImportService.importJson(input("{\"isbn\": \"IMPJSN0009\"}")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void invalidRows_AreReportedAndSkipped() throws Exception {
+        BookImportReport report = bookImportService.importCsv(input("""
+                isbn,title,author,publicationYear,genre,copiesAvailable
+                IMPBAD0001,Valid,Author,2000,FICTION,1
+                IMPBAD0002,,Author,2000,FICTION,1
+                IMPBAD0003,Too Old,Author,1700,FICTION,1
+                SHORT,Bad Isbn,Author,2000,FICTION,1
+                IMPBAD0005,Not A Number,Author,twenty,FICTION,1
+                IMPBAD0006,Unknown Genre,Author,2000,POETRY,1
+                IMPBAD0007,Negative,Author,2000,FICTION,-1
+                """));
+
+        Assertions.assertThat(report.getReceived()).isEqualTo(7);
+        Assertions.assertThat(report.getImported()).isEqualTo(1);
+        Assertions.assertThat(report.getFailed()).isEqualTo(6);
+        Assertions.assertThat(report.getErrors()).extracting(RowError::getRow).containsExactly(2L, 3L, 4L, 5L, 6L, 7L);
+        Assertions.assertThat(report.getErrors().get(0).getMessage()).contains("title");
+        Assertions.assertThat(report.getErrors().get(1).getMessage()).contains("publicationYear");
+        Assertions.assertThat(report.getErrors().get(3).getMessage()).startsWith("Malformed row");
+        Assertions.assertThat(bookRepository.existsById("IMPBAD0002")).isFalse();
+    }
+
+    @Test
+    void duplicates_WithinImportAndAgainstCatalog_AreReported() throws Exception {
+        bookService.createBook(new Book("IMPDUP0001", "Already Here", "Author", 2000, Genre.FICTION, 1));
+
+        BookImportReport report = bookImportService.importCsv(input("""
+                isbn,title,author,publicationYear,genre,copiesAvailable
+                IMPDUP0001,Existing,Author,2000,FICTION,1
+                IMPDUP0002,First,Author,2000,FICTION,1
+                IMPDUP0002,Same Chunk,Author,2000,FICTION,1
+                IMPDUP0003,Second Chunk,Author,2000,FICTION,1
+                IMPDUP0002,Later Chunk,Author,2000,FICTION,1
+                """));
+
+        Assertions.assertThat(report.getImported()).isEqualTo(2);
+        Assertions.assertThat(report.getErrors()).extracting(RowError::getRow, RowError::getMessage).containsExactly(
+                Assertions.tuple(3L, "ISBN IMPDUP0002 appears more than once in the import"),
+                Assertions.tuple(1L, "ISBN IMPDUP0001 already exists"),
+                Assertions.tuple(5L, "ISBN IMPDUP0002 already exists"));
+        Assertions.assertThat(bookService.getBookByISBN("IMPDUP0001").getTitle()).isEqualTo("Already Here");
+        Assertions.assertThat(bookService.getBookByISBN("IMPDUP0002").getTitle()).isEqualTo("First");
+    }
+
+    @Test
+    void chunkThatFailsToWrite_IsReportedWithoutUndoingOtherChunks() throws Exception {
+        // None of the ISBNs exist yet, but another client inserts one of the second chunk's
+        // right after the duplicate check.
+        doAnswer(invocation -> {
+            Collection<String> isbns = invocation.getArgument(0);
+            if (isbns.contains("IMPRCE0005")) {
+                TransactionTemplate otherClient = new TransactionTemplate(transactionManager);
+                otherClient.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                otherClient.executeWithoutResult(status -> jdbcTemplate.update(
+                        "insert into book (isbn, title, author, publication_year, genre, copies) "
+                                + "values ('IMPRCE0005', 'Raced', 'Author', 2000, 'FICTION', 1)"));
+            }
+            return List.of();
+        }).when(bookRepository).findExistingIsbns(anyCollection());
+
+        BookImportReport report = bookImportService.importCsv(input("""
+                isbn,title,author,publicationYear,genre,copiesAvailable
+                IMPRCE0001,One,Author,2000,FICTION,1
+                IMPRCE0002,Two,Author,2000,FICTION,1
+                IMPRCE0003,Three,Author,2000,FICTION,1
+                IMPRCE0004,Four,Author,2000,FICTION,1
+                IMPRCE0005,Five,Author,2000,FICTION,1
+                IMPRCE0006,Six,Author,2000,FICTION,1
+                IMPRCE0007,Seven,Author,2000,FICTION,1
+                """));
+
+        Assertions.assertThat(report.getReceived()).isEqualTo(7);
+        Assertions.assertThat(report.getImported()).isEqualTo(4);
+        Assertions.assertThat(report.getErrors()).extracting(RowError::getRow).containsExactly(4L, 5L, 6L);
+        Assertions.assertThat(report.getErrors()).allSatisfy(error ->
+                Assertions.assertThat(error.getMessage()).startsWith("Chunk write failed"));
+        Assertions.assertThat(bookRepository.findAllById(List.of("IMPRCE0001", "IMPRCE0002", "IMPRCE0003",
+                "IMPRCE0004", "IMPRCE0006", "IMPRCE0007"))).extracting(Book::getIsbn)
+                .containsExactlyInAnyOrder("IMPRCE0001", "IMPRCE0002", "IMPRCE0003", "IMPRCE0007");
+        Assertions.assertThat(bookService.getBookByISBN("IMPRCE0005").getTitle()).isEqualTo("Raced");
+    }
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
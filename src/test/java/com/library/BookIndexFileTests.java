@@ -0,0 +1,236 @@
+package com.library;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.library.entity.Book;
+import com.library.entity.BookPatch;
+import com.library.entity.Genre;
+import com.library.repository.BookRepository;
+import com.library.service.BookCatalogScanner;
+import com.library.service.BookIndexFile;
+import com.library.service.BookService;
+
+/**
+ * Checks that the index file returns what the database holds after writes, that a restarted
+ * index opens its files without a rebuild, that files left behind by a database that has
+ * since changed are rejected, that a write made during a rebuild or a merge is not lost, that
+ * reads do not wait for a rebuild, and that deleted files are not reopened.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:indexfiledb",
+        "library.index.file.enabled=true"
+})
+class BookIndexFileTests {
+
+    private static final Path DIRECTORY = temporaryDirectory();
+
+    @DynamicPropertySource
+    static void indexDirectory(DynamicPropertyRegistry registry) {
+        registry.add("library.index.file.directory", DIRECTORY::toString);
+    }
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    BookCatalogScanner catalogScanner;
+
+    @Autowired
+    BookIndexFile indexFile;
+
+    @Test
+    void indexFile_MatchesDatabaseAcrossRestarts() {
+        Assertions.assertThat(indexFile.isReady()).isTrue();
+        for (int i = 0; i < 20; i++) {
+            bookService.createBook(new Book("INDEXED" + String.format("%03d", i), "Mapped " + i, "Index Author",
+                    2000 + i, i % 3 == 0 ? null : Genre.FICTION, i));
+        }
+        BookPatch patch = new BookPatch();
+        patch.setTitle("Remapped");
+        bookService.updateBookPartial("INDEXED004", patch);
+        bookService.checkoutBook("INDEXED007");
+        bookService.deleteBook("INDEXED011");
+        assertMatchesDatabase(indexFile);
+        Assertions.assertThat(bookService.getBookByISBN("INDEXED004").getTitle()).isEqualTo("Remapped");
+
+        indexFile.close();
+        BookIndexFile restarted = new BookIndexFile(catalogScanner, bookRepository, true, DIRECTORY);
+        Assertions.assertThat(restarted.load()).as("files reopened without a rebuild").isTrue();
+        assertMatchesDatabase(restarted);
+        restarted.close();
+
+        // Written behind the index's back, as by another run of the application
+        bookRepository.save(new Book("INDEXED999", "Unindexed", "Index Author", 2020, Genre.FICTION, 1));
+        BookIndexFile stale = new BookIndexFile(catalogScanner, bookRepository, true, DIRECTORY);
+        Assertions.assertThat(stale.load()).as("stale files rejected").isFalse();
+        stale.open();
+        assertMatchesDatabase(stale);
+        stale.close();
+
+        Assertions.assertThat(indexFile.get("INDEXED999")).as("closed index serves nothing").isNull();
+        Assertions.assertThat(indexFile.isbnRange("INDEXED000", "INDEXED999")).isNull();
+        Assertions.assertThat(bookService.getBookByISBN("INDEXED999").getTitle()).isEqualTo("Unindexed");
+
+        indexFile.open();
+    }
+
+    @Test
+    void writeDuringRebuild_IsApplied() throws Exception {
+        Book written = new Book("INDEXRACE1", "Written Mid-Scan", "Index Author", 2021, Genre.FICTION, 2);
+        AtomicReference<BookIndexFile> index = new AtomicReference<>();
+        AtomicReference<Thread> writer = new AtomicReference<>();
+        BookCatalogScanner scanner = new BookCatalogScanner(null, null) {
+            @Override
+            public void forEachBook(Consumer<Book> action) {
+                catalogScanner.forEachBook(book -> {
+                    action.accept(book);
+                    if (writer.get() == null) {
+                        writer.set(Thread.ofPlatform().start(() -> index.get().bookSaved(null, written)));
+                        while (writer.get().isAlive() && writer.get().getState() != Thread.State.WAITING) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                });
+            }
+        };
+        index.set(new BookIndexFile(scanner, bookRepository, true, temporaryDirectory()));
+
+        index.get().rebuild();
+        writer.get().join();
+
+        Assertions.assertThat(index.get().get("INDEXRACE1")).contains(written);
+        index.get().close();
+    }
+
+    @Test
+    void readDuringRebuild_DoesNotWait() {
+        AtomicReference<BookIndexFile> index = new AtomicReference<>();
+        AtomicReference<Optional<Book>> read = new AtomicReference<>(Optional.empty());
+        AtomicBoolean readDuringScan = new AtomicBoolean();
+        BookCatalogScanner scanner = new BookCatalogScanner(null, null) {
+            @Override
+            public void forEachBook(Consumer<Book> action) {
+                catalogScanner.forEachBook(action);
+                Thread reader = Thread.ofPlatform().start(() -> read.set(index.get().get("INDEXRACE2")));
+                try {
+                    readDuringScan.set(reader.join(Duration.ofSeconds(5)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        index.set(new BookIndexFile(scanner, bookRepository, true, temporaryDirectory()));
+
+        index.get().rebuild();
+
+        Assertions.assertThat(readDuringScan).isTrue();
+        Assertions.assertThat(read.get()).as("no answer from a locked index").isNull();
+        index.get().close();
+    }
+
+    @Test
+    void mergeInBackground_KeepsEveryWrite() throws Exception {
+        Path directory = temporaryDirectory();
+        BookIndexFile index = new BookIndexFile(catalogScanner, bookRepository, true, directory);
+        index.rebuild();
+        // Enough writes to start a merge, and some more while it runs
+        List<Book> written = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Book book = new Book("MERGED" + String.format("%04d", i), "Merged " + i, "Index Author", 2000,
+                    Genre.FICTION, i);
+            index.bookSaved(null, book);
+            written.add(book);
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        List<Book> books = null;
+        while (System.nanoTime() < deadline && (entries(directory) < 4096 || books == null)) {
+            Thread.sleep(10);
+            books = index.isbnRange("MERGED0000", "MERGED9999");
+        }
+
+        Assertions.assertThat(entries(directory)).as("merged entries").isGreaterThanOrEqualTo(4096);
+        Assertions.assertThat(books).isEqualTo(written);
+        index.close();
+    }
+
+    @Test
+    void delete_RemovesFilesSoTheNextStartRebuilds() throws Exception {
+        Path directory = temporaryDirectory();
+        BookIndexFile index = new BookIndexFile(catalogScanner, bookRepository, true, directory);
+        index.rebuild();
+
+        index.delete();
+
+        Assertions.assertThat(index.get("INDEXED000")).isNull();
+        Assertions.assertThat(directory.resolve("books.idx")).doesNotExist();
+        Assertions.assertThat(directory.resolve("books.dat")).doesNotExist();
+        Assertions.assertThat(new BookIndexFile(catalogScanner, bookRepository, true, directory).load()).isFalse();
+    }
+
+    /**
+     * The entry count in the header of the index file in {@code directory}.
+     */
+    private static int entries(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve("books.idx"), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(12);
+            channel.read(header, 0);
+            return header.getInt(8);
+        }
+    }
+
+    private void assertMatchesDatabase(BookIndexFile index) {
+        List<Book> expected = bookRepository.findByIsbnBetweenOrderByIsbnAsc("INDEXED000", "INDEXED999");
+        List<Book> actual = index.isbnRange("INDEXED000", "INDEXED999");
+        Assertions.assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            Book book = actual.get(i);
+            Assertions.assertThat(withoutModified(book)).isEqualTo(withoutModified(expected.get(i)));
+            Assertions.assertThat(withoutModified(index.get(book.getIsbn()).orElseThrow())).isEqualTo(withoutModified(book));
+            Assertions.assertThat(book.getLastModified().toEpochMilli())
+                    .isCloseTo(expected.get(i).getLastModified().toEpochMilli(), Assertions.within(1L));
+        }
+        Assertions.assertThat(index.get("INDEXED011")).isEmpty();
+    }
+
+    /**
+     * The database may round modification times finer than a microsecond.
+     */
+    private static Book withoutModified(Book book) {
+        Book copy = book.copy();
+        copy.setLastModified(null);
+        return copy;
+    }
+
+    private static Path temporaryDirectory() {
+        try {
+            return Files.createTempDirectory("book-index");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
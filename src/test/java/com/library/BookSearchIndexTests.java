@@ -0,0 +1,183 @@
+package com.library;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.library.entity.Book;
+import com.library.entity.Genre;
+import com.library.service.BookCatalogScanner;
+import com.library.service.BookSearchIndex;
+
+/**
+ * Runs {@link BookSearchIndex} against an in-memory catalog standing in for the database.
+ */
+class BookSearchIndexTests {
+
+    private final List<Book> catalog = new ArrayList<>();
+
+    private final CatalogScanner scanner = new CatalogScanner(catalog);
+
+    private final BookSearchIndex index = new BookSearchIndex(scanner);
+
+    @Test
+    void text_IsSplitOnNonAlphanumericsAndLowerCased() {
+        catalog.add(book("SEARCH0001", "The Lord-of-the-Rings: Part 2", "J.R.R. Tolkien"));
+        catalog.add(book("SEARCH0002", "O'Brien's Café", "Flann O'Brien"));
+        index.seed();
+
+        Assertions.assertThat(isbns(index.search("LORD rings", 10))).containsExactly("SEARCH0001");
+        Assertions.assertThat(isbns(index.search("part 2", 10))).containsExactly("SEARCH0001");
+        Assertions.assertThat(isbns(index.search("tolk", 10))).containsExactly("SEARCH0001");
+        Assertions.assertThat(isbns(index.search("café", 10))).containsExactly("SEARCH0002");
+        // A whole word after the last whitespace is not a prefix
+        Assertions.assertThat(index.search("tolk ", 10)).isEmpty();
+        Assertions.assertThat(index.search("ord", 10)).isEmpty();
+        Assertions.assertThat(index.search("--", 10)).isEmpty();
+    }
+
+    @Test
+    void titleMatches_RankAboveAuthorMatches() {
+        catalog.add(book("SEARCH0011", "Collected Stories", "Ray Bradbury"));
+        catalog.add(book("SEARCH0012", "Bradbury: A Life", "Sam Weller"));
+        index.seed();
+
+        Assertions.assertThat(isbns(index.search("bradbury", 10))).containsExactly("SEARCH0012", "SEARCH0011");
+    }
+
+    @Test
+    void updatesAndDeletes_TombstoneOldDocuments() {
+        index.seed();
+        index.bookSaved(null, book("SEARCH0021", "Original Title", "Someone"));
+        index.bookSaved(null, book("SEARCH0021", "Renamed Title", "Someone"));
+
+        Assertions.assertThat(index.search("original", 10)).isEmpty();
+        Assertions.assertThat(isbns(index.search("title", 10))).containsExactly("SEARCH0021");
+
+        index.bookDeleted(book("SEARCH0021", "Renamed Title", "Someone"));
+        Assertions.assertThat(index.search("renamed", 10)).isEmpty();
+        Assertions.assertThat(index.search("someone", 10)).isEmpty();
+    }
+
+    @Test
+    void saveKeepingTitleAndAuthor_ReplacesStoredBook() {
+        index.seed();
+        index.bookSaved(null, book("SEARCH0025", "Checked Out", "Someone"));
+        Book checkedOut = book("SEARCH0025", "Checked Out", "Someone");
+        checkedOut.setCopiesAvailable(0);
+        index.bookSaved(null, checkedOut);
+
+        Assertions.assertThat(index.search("checked", 10)).extracting(Book::getCopiesAvailable).containsExactly(0);
+        Assertions.assertThat(index.search("someone", 10)).hasSize(1);
+    }
+
+    @Test
+    void manyUpdates_SurviveCompaction() {
+        catalog.add(book("SEARCH0031", "Untouched Book", "Steady Author"));
+        index.seed();
+        for (int i = 0; i < 25_000; i++) {
+            index.bookSaved(null, book("SEARCH0032", "Revision " + i, "Busy Author"));
+        }
+
+        Assertions.assertThat(isbns(index.search("untouched", 10))).containsExactly("SEARCH0031");
+        Assertions.assertThat(index.search("busy", 10)).extracting(Book::getTitle).containsExactly("Revision 24999");
+        Assertions.assertThat(index.search("revision 12", 10)).isEmpty();
+    }
+
+    @Test
+    void titleSearch_MatchesTheSameBooksBeforeAndAfterSeeding() {
+        catalog.add(book("SEARCH0041", "Java Concurrency in Practice", "Brian Goetz"));
+        catalog.add(book("SEARCH0042", "Effective Java", "Joshua Bloch"));
+        catalog.add(book("SEARCH0043", "JavaScript: The Good Parts", "Douglas Crockford"));
+        catalog.add(book("SEARCH0044", "Kava and Javanese Culture", "Anonymous"));
+        catalog.add(book("SEARCH0045", "Lava Flows", "Java Expert"));
+
+        List<List<Book>> beforeSeeding = new ArrayList<>();
+        List<String> keywords = List.of("java", "JAVA prac", "ava", "script good", "java culture", "", "flows");
+        for (String keyword : keywords) {
+            beforeSeeding.add(index.searchTitles(keyword, 10));
+        }
+        index.seed();
+
+        for (int i = 0; i < keywords.size(); i++) {
+            Assertions.assertThat(isbns(beforeSeeding.get(i)))
+                    .as(keywords.get(i))
+                    .isEqualTo(isbns(index.searchTitles(keywords.get(i), 10)));
+        }
+        Assertions.assertThat(isbns(index.searchTitles("java", 10)))
+                .containsExactly("SEARCH0042", "SEARCH0041", "SEARCH0043", "SEARCH0044");
+        Assertions.assertThat(isbns(index.searchTitles("java", 2))).containsExactly("SEARCH0042", "SEARCH0041");
+    }
+
+    @Test
+    void writesDuringSeed_AreNotLost() {
+        catalog.add(book("SEARCH0051", "Scanned Early", "Author"));
+        catalog.add(book("SEARCH0052", "Scanned Late", "Author"));
+        catalog.add(book("SEARCH0053", "Deleted Meanwhile", "Author"));
+        scanner.duringScan = () -> {
+            index.bookSaved(null, book("SEARCH0051", "Renamed Meanwhile", "Author"));
+            index.bookSaved(null, book("SEARCH0054", "Created Meanwhile", "Author"));
+            index.bookDeleted(book("SEARCH0053", "Deleted Meanwhile", "Author"));
+        };
+        index.seed();
+
+        Assertions.assertThat(isbns(index.search("author", 10)))
+                .containsExactlyInAnyOrder("SEARCH0051", "SEARCH0052", "SEARCH0054");
+        Assertions.assertThat(index.search("early", 10)).isEmpty();
+        Assertions.assertThat(isbns(index.search("meanwhile", 10))).containsExactlyInAnyOrder("SEARCH0051", "SEARCH0054");
+    }
+
+    private static Book book(String isbn, String title, String author) {
+        return new Book(isbn, title, author, 2000, Genre.FICTION, 1);
+    }
+
+    private static List<String> isbns(List<Book> books) {
+        return books.stream().map(Book::getIsbn).toList();
+    }
+
+    /**
+     * Scans a list the way the database would: by ISBN, or by title containing a string
+     * ignoring case, in title order. {@code duringScan} runs after the first book is scanned.
+     */
+    private static final class CatalogScanner extends BookCatalogScanner {
+
+        private final List<Book> books;
+
+        private Runnable duringScan = () -> { };
+
+        private CatalogScanner(List<Book> books) {
+            super(null, null);
+            this.books = books;
+        }
+
+        @Override
+        public void forEachBook(Consumer<Book> action) {
+            List<Book> sorted = books.stream().sorted(Comparator.comparing(Book::getIsbn)).toList();
+            for (int i = 0; i < sorted.size(); i++) {
+                action.accept(sorted.get(i).copy());
+                if (i == 0) {
+                    duringScan.run();
+                }
+            }
+        }
+
+        @Override
+        public void forEachBookWithTitleContaining(String text, Predicate<Book> action) {
+            for (Book book : books.stream()
+                    .filter(book -> book.getTitle().toLowerCase(Locale.ROOT).contains(text.toLowerCase(Locale.ROOT)))
+                    .sorted(Comparator.comparing(Book::getTitle).thenComparing(Book::getIsbn))
+                    .toList()) {
+                if (!action.test(book.copy())) {
+                    return;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.library;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.library.entity.Book;
+import com.library.entity.Genre;
+import com.library.exception.BadRequestException;
+import com.library.service.BookSort;
+
+class BookSortTests {
+
+    private final BookSort sort = BookSort.parse("genre");
+
+    @Test
+    void cursor_RoundTripsGenreIncludingNull() {
+        Book book = new Book("SORT000001", "Sorted", "Sort Author", 2001, Genre.FICTION, 1);
+        Assertions.assertThat(sort.decodeCursor(sort.encodeCursor(book))).containsExactly(Genre.FICTION, "SORT000001");
+
+        book.setGenre(null);
+        Assertions.assertThat(sort.decodeCursor(sort.encodeCursor(book))).containsExactly(null, "SORT000001");
+    }
+
+    @Test
+    void cursorWithBadGenre_IsRejectedAsInvalid() {
+        for (String genre : new String[] {"7", "true", "{}", "[]", "\"POETRY\""}) {
+            String cursor = cursor("[" + genre + ",\"SORT000001\"]");
+            Assertions.assertThatThrownBy(() -> sort.decodeCursor(cursor))
+                    .as(genre)
+                    .isInstanceOf(BadRequestException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+
+    private static String cursor(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
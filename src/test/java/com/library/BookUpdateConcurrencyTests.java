@@ -0,0 +1,125 @@
+package com.library;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.library.entity.Book;
+import com.library.entity.BookPatch;
+import com.library.entity.Genre;
+import com.library.exception.NoCopiesAvailableException;
+import com.library.exception.PreconditionFailedException;
+import com.library.repository.BookRepository;
+import com.library.service.BookETags;
+import com.library.service.BookService;
+
+/**
+ * Races whole-book updates against each other and against checkouts, and checks that no write
+ * is lost: conditional updates either apply to the version they read or fail, and
+ * unconditional ones are retried on a fresh read.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:updatedb;LOCK_TIMEOUT=10000",
+        "library.books.update-attempts=1000"
+})
+class BookUpdateConcurrencyTests {
+
+    private static final int THREADS = 16;
+    private static final int INCREMENTS_PER_THREAD = 20;
+    private static final int COPIES = 500;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Test
+    void conditionalIncrements_NeverLoseAnUpdate() throws Exception {
+        bookService.createBook(new Book("IFMATCH001", "Optimistic Locking", "Vlad Mihalcea", 2016, Genre.NON_FICTION, 0));
+
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                while (true) {
+                    Book current = bookRepository.findById("IFMATCH001").orElseThrow();
+                    BookPatch patch = new BookPatch();
+                    patch.setCopiesAvailable(current.getCopiesAvailable() + 1);
+                    try {
+                        bookService.updateBookPartial("IFMATCH001", patch, BookETags.of(current));
+                        break;
+                    } catch (PreconditionFailedException e) {
+                        // stale version, read again and retry
+                    }
+                }
+            }
+        });
+
+        int increments = THREADS * INCREMENTS_PER_THREAD;
+        Book book = bookRepository.findById("IFMATCH001").orElseThrow();
+        Assertions.assertThat(book.getCopiesAvailable()).isEqualTo(increments);
+        Assertions.assertThat(book.getVersion()).isGreaterThanOrEqualTo((long) increments);
+    }
+
+    @Test
+    void unconditionalUpdatesRacingCheckouts_KeepCopyCountExact() throws Exception {
+        bookService.createBook(new Book("RETRY00001", "Designing Data-Intensive Applications", "Martin Kleppmann", 2017,
+                Genre.NON_FICTION, COPIES));
+        AtomicInteger checkedOut = new AtomicInteger();
+        AtomicInteger renamed = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                if (thread % 2 == 0) {
+                    try {
+                        bookService.checkoutBook("RETRY00001");
+                        checkedOut.incrementAndGet();
+                    } catch (NoCopiesAvailableException e) {
+                        // not expected with this many copies, but harmless
+                    }
+                } else {
+                    BookPatch patch = new BookPatch();
+                    patch.setTitle("Designing Data-Intensive Applications " + renamed.incrementAndGet());
+                    bookService.updateBookPartial("RETRY00001", patch);
+                }
+            }
+        });
+
+        Book book = bookRepository.findById("RETRY00001").orElseThrow();
+        Assertions.assertThat(book.getCopiesAvailable()).isEqualTo(COPIES - checkedOut.get());
+        Assertions.assertThat(book.getTitle()).startsWith("Designing Data-Intensive Applications ");
+    }
+
+    private static void runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.library;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import com.library.entity.Book;
+import com.library.entity.Genre;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+import com.library.service.BookService;
+import com.library.service.UserDetailsServiceImpl;
+import com.library.snapshot.CatalogSnapshot;
+
+/**
+ * Round-trips the book and users tables through a snapshot file, and checks that a damaged
+ * file is rejected before anything is changed.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:snapshotdb")
+class CatalogSnapshotTests {
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    void restore_BringsBackExportedRows() {
+        bookService.createBook(new Book("SNAPSHOT01", "Cien años de soledad", "Gabriel García Márquez", 1967, Genre.FICTION, 2));
+        bookService.createBook(new Book("SNAPSHOT02", "Untitled", "Anonymous", 1901, null, 0));
+        userDetailsService.saveUser(user("snapshot-admin", "admin@example.com"));
+        userDetailsService.saveUser(user("snapshot-user", null));
+        List<Book> books = bookRepository.findAll(Sort.by("isbn"));
+        List<User> users = userRepository.findAll(Sort.by("id"));
+
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshot.Counts counts = catalogSnapshot.export(file);
+        Assertions.assertThat(counts).isEqualTo(new CatalogSnapshot.Counts(books.size(), users.size()));
+
+        bookService.deleteBook("SNAPSHOT01");
+        bookService.createBook(new Book("SNAPSHOT03", "Written after the snapshot", "Anonymous", 2020, Genre.FICTION, 1));
+        userDetailsService.saveUser(user("snapshot-late", null));
+
+        Assertions.assertThat(catalogSnapshot.restore(file)).isEqualTo(counts);
+        Assertions.assertThat(bookRepository.findAll(Sort.by("isbn"))).isEqualTo(books);
+        Assertions.assertThat(userRepository.findAll(Sort.by("id"))).isEqualTo(users);
+
+        User created = userDetailsService.saveUser(user("snapshot-next", null));
+        Assertions.assertThat(created.getId()).isGreaterThan(users.get(users.size() - 1).getId());
+    }
+
+    @Test
+    void damagedSnapshot_ChangesNothing() throws IOException {
+        bookService.createBook(new Book("SNAPSHOT11", "Checksummed", "Anonymous", 2001, Genre.NON_FICTION, 1));
+        Path file = directory.resolve("damaged.snapshot");
+        catalogSnapshot.export(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 'X' }), 20);
+        }
+        bookService.createBook(new Book("SNAPSHOT12", "Kept", "Anonymous", 2002, Genre.NON_FICTION, 1));
+        long before = bookRepository.count();
+
+        Assertions.assertThatThrownBy(() -> catalogSnapshot.restore(file))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("checksum");
+        Assertions.assertThat(bookRepository.count()).isEqualTo(before);
+        Assertions.assertThat(bookRepository.existsById("SNAPSHOT12")).isTrue();
+    }
+
+    private static User user(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        user.setEmail(email);
+        return user;
+    }
+
+}
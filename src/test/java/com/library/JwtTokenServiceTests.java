@@ -0,0 +1,124 @@
+package com.library;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.security.JwtTokenService;
+
+class JwtTokenServiceTests {
+
+    private static final String SECRET = "test-signing-key-of-at-least-32-bytes";
+
+    private final JwtTokenService tokenService = service(SECRET, Duration.ofMinutes(5));
+
+    @Test
+    void issuedToken_VerifiesToSameUserAndRoles() {
+        String token = tokenService.issue(authentication("alice", "ROLE_USER", "ROLE_ADMIN"));
+
+        Authentication verified = tokenService.verify(token);
+
+        Assertions.assertThat(verified.isAuthenticated()).isTrue();
+        Assertions.assertThat(verified.getName()).isEqualTo("alice");
+        Assertions.assertThat(verified.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    void tamperedClaims_AreRejected() {
+        String token = tokenService.issue(authentication("alice", "ROLE_USER"));
+        String[] parts = token.split("\\.");
+        String claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("ROLE_USER", "ROLE_ADMIN");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        Assertions.assertThatThrownBy(() -> tokenService.verify(forged))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Invalid token signature");
+    }
+
+    @Test
+    void tokenSignedWithAnotherSecret_IsRejected() {
+        String token = service(SECRET.replace("test", "other"), Duration.ofMinutes(5)).issue(authentication("alice", "ROLE_USER"));
+
+        Assertions.assertThatThrownBy(() -> tokenService.verify(token))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Invalid token signature");
+    }
+
+    @Test
+    void expiredToken_IsRejected() {
+        String token = service(SECRET, Duration.ofSeconds(-1)).issue(authentication("alice", "ROLE_USER"));
+
+        Assertions.assertThatThrownBy(() -> tokenService.verify(token))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Token has expired");
+    }
+
+    @Test
+    void malformedTokens_AreRejected() {
+        String token = tokenService.issue(authentication("alice", "ROLE_USER"));
+
+        for (String malformed : List.of("", "no-dots", "one.dot", token + "!", "x" + token)) {
+            Assertions.assertThatThrownBy(() -> tokenService.verify(malformed))
+                    .as(malformed)
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+    }
+
+    @Test
+    void shortSecret_FailsStartup() {
+        Assertions.assertThatThrownBy(() -> service("test-secret", Duration.ofMinutes(5)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("at least 32 bytes");
+    }
+
+    @Test
+    void emptySecret_UsesRandomKey() {
+        String token = service("", Duration.ofMinutes(5)).issue(authentication("alice", "ROLE_USER"));
+
+        Assertions.assertThatThrownBy(() -> service("", Duration.ofMinutes(5)).verify(token))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void concurrentVirtualThreads_VerifyEachOthersTokens() throws Exception {
+        List<Future<String>> names = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                String username = "user" + i;
+                names.add(executor.submit(() -> tokenService.verify(
+                        tokenService.issue(authentication(username, "ROLE_USER"))).getName()));
+            }
+        }
+
+        for (int i = 0; i < names.size(); i++) {
+            Assertions.assertThat(names.get(i).get()).isEqualTo("user" + i);
+        }
+    }
+
+    private static JwtTokenService service(String secret, Duration expiration) {
+        return new JwtTokenService(new ObjectMapper(), secret, expiration);
+    }
+
+    private static Authentication authentication(String username, String... roles) {
+        return UsernamePasswordAuthenticationToken.authenticated(username, null,
+                List.of(roles).stream().map(SimpleGrantedAuthority::new).toList());
+    }
+
+}
@@ -12,21 +12,31 @@ import java.util.List;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.library.controller.BookControllerV1;
+import com.library.controller.BookController;
 import com.library.entity.Book;
+import com.library.service.BookETags;
+import com.library.service.BookFields;
+import com.library.service.BookImportService;
 import com.library.service.BookService;
 
-@WebMvcTest(BookControllerV1.class)
+@WebMvcTest(BookController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(BookETags.class)
 public class LibraryTestsController {
 
     @MockitoBean
     BookService bookService;
 
+    @MockitoBean
+    BookImportService bookImportService;
+
     @Autowired
     ObjectMapper objectMapper;
 
@@ -37,14 +47,14 @@ public class LibraryTestsController {
     public void testGetAllBooks() throws Exception{
 
         List<Book> books = List.of(new Book("9781234567890", "The Great Gatsby", "F. Scott Fitzgerald", 1925, null, 5));
-        when(bookService.getBooks()).thenReturn(books);
+        when(bookService.getBooks(BookFields.ALL)).thenReturn(books);
 
     mockMvc.perform(get("/api/v1/books"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$[0].isbn").value("9781234567890"))
         .andExpect(jsonPath("$[0].title").value("The Great Gatsby"));
 
-        Assertions.assertThat(bookService.getBooks().size()).isEqualTo(1);
+        Assertions.assertThat(bookService.getBooks(BookFields.ALL).size()).isEqualTo(1);
 
     }
 
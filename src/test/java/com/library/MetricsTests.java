@@ -0,0 +1,84 @@
+package com.library;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.library.security.JwtTokenService;
+import com.library.service.BookFields;
+import com.library.service.BookService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Checks that service methods, repository calls and SQL statements are measured, and that the
+ * meters are exposed for Prometheus.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metricsdb")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsTests {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    JwtTokenService jwtTokenService;
+
+    @Test
+    void serviceAndRepositoryCalls_AreTimed() {
+        long before = serviceCalls("getBooks");
+        long selects = (long) meterRegistry.get("library.sql.statements").tag("kind", "select").counter().count();
+
+        bookService.getBooks(BookFields.ALL);
+
+        Assertions.assertThat(serviceCalls("getBooks")).isEqualTo(before + 1);
+        Assertions.assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "BookRepository").timers()).isNotEmpty();
+        Assertions.assertThat(meterRegistry.get("library.sql.statements").tag("kind", "select").counter().count())
+                .isGreaterThan(selects);
+    }
+
+    @Test
+    void requests_RecordStatementsAndAreScrapedByPrometheus() throws Exception {
+        String authorization = "Bearer " + jwtTokenService.issue(new UsernamePasswordAuthenticationToken(
+                "metrics", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        mockMvc.perform(get("/api/v2/books").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+
+        Assertions.assertThat(meterRegistry.get("library.sql.statements.per.request")
+                .tag("method", "GET").tag("uri", "/api/{version:v1|v2}/books").summary().count()).isPositive();
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Assertions.assertThat(scrape)
+                .contains("library_books_service_seconds_bucket")
+                .contains("library_sql_statements_per_request_count")
+                .contains("library_sql_statements_total");
+    }
+
+    private long serviceCalls(String method) {
+        var timer = meterRegistry.find("library.books.service").tag("method", method).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.library;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import com.library.entity.Book;
+import com.library.entity.Genre;
+import com.library.entity.UserSummary;
+import com.library.repository.BookProjections;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+import com.library.service.BookFields;
+import com.library.service.BookSort;
+import com.library.service.BookSpecifications;
+
+/**
+ * Runs every query method of {@link BookRepository} and {@link UserRepository}, and every
+ * single-field sort of the query engine, against the migrated schema. It captures the SQL Hibernate sends and runs H2's EXPLAIN on each
+ * statement. A statement fails the build if its plan walks the whole table and then sorts,
+ * or walks the whole table to apply a WHERE filter.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.library.RepositoryQueryPlanTests$RecordingStatementInspector")
+class RepositoryQueryPlanTests {
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    private final Set<String> covered = new TreeSet<>();
+
+    @BeforeEach
+    void clearRecordedStatements() {
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void repositoryQueries_UseIndexes() throws Exception {
+        check("findById", () -> bookRepository.findById("1234567890"));
+        check("findByIsbnBetweenOrderByIsbnAsc", () -> bookRepository.findByIsbnBetweenOrderByIsbnAsc("1", "9"));
+        check("findAllByOrderByIsbnAsc", () -> bookRepository.findAllByOrderByIsbnAsc(Limit.of(10)));
+        check("findByIsbnGreaterThanOrderByIsbnAsc", () -> bookRepository.findByIsbnGreaterThanOrderByIsbnAsc("1", Limit.of(10)));
+        check("streamAllByOrderByIsbnAsc", () -> {
+            try (Stream<Book> books = bookRepository.streamAllByOrderByIsbnAsc()) {
+                books.count();
+            }
+        });
+        check("findExistingIsbns", () -> bookRepository.findExistingIsbns(List.of("1234567890", "0987654321")));
+        check("takeCopies", () -> bookRepository.takeCopies("1234567890", 1));
+        check("returnCopies", () -> bookRepository.returnCopies("1234567890", 1));
+        check("findAllByOrderByPublicationYearDescIsbnAsc", () -> bookRepository.findAllByOrderByPublicationYearDescIsbnAsc(Limit.of(10)));
+        check("streamByTitleContainingIgnoreCaseOrderByTitleAscIsbnAsc", () -> {
+            try (Stream<Book> books = bookRepository.streamByTitleContainingIgnoreCaseOrderByTitleAscIsbnAsc("java")) {
+                books.count();
+            }
+        });
+        check("findProjected", () -> bookRepository.findProjected(BookSpecifications.isbnAfter("1"), Sort.by("isbn"),
+                Limit.of(10), List.of("isbn", "title")));
+        check("countByGenreAndYear", () -> bookRepository.countByGenreAndYear());
+        check("fingerprint", () -> bookRepository.fingerprint());
+        check("findByUsername", () -> userRepository.findByUsername("admin"));
+        check("findSummaries", () -> userRepository.findSummaries(Limit.of(10)));
+        check("findSummariesAfter", () -> userRepository.findSummariesAfter(0, Limit.of(10)));
+        check("streamSummaries", () -> {
+            try (Stream<UserSummary> users = userRepository.streamSummaries()) {
+                users.count();
+            }
+        });
+    }
+
+    @Test
+    void sortedQueries_UseIndexes() throws Exception {
+        Book last = new Book("1234567890", "Effective Java", "Joshua Bloch", 2018, Genre.NON_FICTION, 5);
+        for (BookSort.Key key : BookSort.Key.values()) {
+            for (String direction : List.of("", "-")) {
+                String spec = direction + key.name().toLowerCase(Locale.ROOT);
+                BookSort sort = BookSort.parse(spec);
+                List<Object> cursor = sort.decodeCursor(sort.encodeCursor(last));
+                check("first page sorted by " + spec, () -> bookRepository.findBy(Specification.allOf(),
+                        q -> q.sortBy(sort.toSort()).limit(21).all()));
+                check("next page sorted by " + spec, () -> bookRepository.findBy(BookSpecifications.after(sort, cursor),
+                        q -> q.sortBy(sort.toSort()).limit(21).all()));
+                check("projected next page sorted by " + spec, () -> bookRepository.findProjected(
+                        BookSpecifications.after(sort, cursor), sort.toSort(), Limit.of(21),
+                        BookFields.parse("isbn,title").properties(sort.toSort())));
+            }
+        }
+    }
+
+    @Test
+    void everyRepositoryQueryMethod_IsChecked() throws Exception {
+        repositoryQueries_UseIndexes();
+
+        Set<String> declared = new TreeSet<>();
+        for (Class<?> repository : List.of(BookRepository.class, BookProjections.class, UserRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (!method.isDefault() && !method.isSynthetic()) {
+                    declared.add(method.getName());
+                }
+            }
+        }
+        Assertions.assertThat(covered)
+                .as("add a plan check for each new repository query method")
+                .containsAll(declared);
+    }
+
+    private void check(String method, ThrowingRunnable query) throws Exception {
+        RecordingStatementInspector.STATEMENTS.clear();
+        query.run();
+        List<String> statements = new ArrayList<>(RecordingStatementInspector.STATEMENTS);
+        Assertions.assertThat(statements).as("SQL issued by %s", method).isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            String normalized = plan.toLowerCase(Locale.ROOT);
+            boolean fullScan = normalized.contains("tablescan");
+            boolean sortWithoutIndex = normalized.contains("order by") && !normalized.contains("index sorted");
+            boolean filteredScan = normalized.contains("where");
+            Assertions.assertThat(fullScan && (sortWithoutIndex || filteredScan))
+                    .as("%s regressed to a full table scan:%n%s", method, plan)
+                    .isFalse();
+        }
+        covered.add(method);
+    }
+
+    private String explain(String sql) throws Exception {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+             ResultSet resultSet = statement.executeQuery()) {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+            return plan.toString();
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    @FunctionalInterface
+    interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    /**
+     * Records the SQL of every SELECT, UPDATE and DELETE that Hibernate prepares.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            String verb = sql.stripLeading().toLowerCase(Locale.ROOT);
+            if (verb.startsWith("select") || verb.startsWith("update") || verb.startsWith("delete")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+
+}
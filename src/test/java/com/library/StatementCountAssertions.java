@@ -0,0 +1,55 @@
+package com.library;
+
+import org.assertj.core.api.Assertions;
+
+import com.library.metrics.StatementCounts;
+
+/**
+ * Statement budgets for tests: fails when an action issues more JDBC statements than allowed,
+ * listing the statements it did issue.
+ */
+final class StatementCountAssertions {
+
+    private StatementCountAssertions() {
+    }
+
+    interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * Counts the statements {@code action} issues on the calling thread.
+     */
+    static StatementCounts countStatements(Action action) throws Exception {
+        try (StatementCounts counts = StatementCounts.start()) {
+            action.run();
+            return counts;
+        }
+    }
+
+    /**
+     * Counts the statements issued on any thread while {@code action} runs, for actions that
+     * hand work to another thread.
+     */
+    static StatementCounts countStatementsOnAllThreads(Action action) throws Exception {
+        try (StatementCounts counts = StatementCounts.startAllThreads()) {
+            action.run();
+            return counts;
+        }
+    }
+
+    static void assertAtMostStatements(int max, Action action) throws Exception {
+        assertAtMost(max, countStatements(action));
+    }
+
+    static void assertAtMostStatementsOnAllThreads(int max, Action action) throws Exception {
+        assertAtMost(max, countStatementsOnAllThreads(action));
+    }
+
+    private static void assertAtMost(int max, StatementCounts counts) {
+        Assertions.assertThat(counts.total())
+                .as("statements issued: %s", counts.statements())
+                .isLessThanOrEqualTo(max);
+    }
+
+}
@@ -0,0 +1,234 @@
+package com.library;
+
+import static com.library.StatementCountAssertions.assertAtMostStatements;
+import static com.library.StatementCountAssertions.assertAtMostStatementsOnAllThreads;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.entity.Book;
+import com.library.entity.BookPatch;
+import com.library.entity.BookPatchItem;
+import com.library.entity.Genre;
+import com.library.entity.User;
+import com.library.entity.UserSummary;
+import com.library.security.JwtTokenService;
+import com.library.service.BookService;
+import com.library.service.UserDetailsServiceImpl;
+
+/**
+ * Statement budgets for every V2 book and user endpoint. Each request runs against more rows
+ * than its budget, so a query per row (N+1) fails the test along with any other added query.
+ * Requests authenticate with a bearer token, which is checked without the database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:statementcountdb")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementCountTests {
+
+    private static final int BOOKS = 20;
+    private static final int USERS = 10;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    JwtTokenService jwtTokenService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private String authorization;
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < BOOKS; i++) {
+            bookService.createBook(book("STMT" + String.format("%06d", i)));
+        }
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("counted" + i);
+            user.setPassword("password");
+            user.setEmail("counted" + i + "@example.com");
+            userDetailsService.saveUser(user);
+        }
+        authorization = "Bearer " + jwtTokenService.issue(new UsernamePasswordAuthenticationToken(
+                "counted0", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+
+    @Test
+    void bookListings_IssueOneStatement() throws Exception {
+        assertAtMostStatements(1, () -> perform(get("/api/v2/books")));
+        assertAtMostStatements(1, () -> perform(get("/api/v2/books").param("fields", "isbn,title")));
+        assertAtMostStatements(1, () -> perform(get("/api/v2/books/page").param("size", "10")));
+        assertAtMostStatements(1, () -> perform(get("/api/v2/books/page").param("after", "STMT000005").param("fields", "isbn")));
+        assertAtMostStatements(1, () -> perform(get("/api/v2/books/isbn-range")
+                .param("startIsbn", "STMT000000").param("endIsbn", "STMT999999")));
+        assertAtMostStatements(1, () -> perform(get("/api/v2/books/sorted/{field}/desc", "title")));
+        assertAtMostStatements(1, () -> perform(get("/api/v2/books/query")
+                .param("genre", "FICTION").param("sort", "-year,title").param("size", "5")));
+    }
+
+    @Test
+    void streamedCatalog_IssuesOneStatement() throws Exception {
+        assertAtMostStatementsOnAllThreads(1, () -> {
+            MvcResult result = mockMvc.perform(get("/api/v2/books/stream").header(HttpHeaders.AUTHORIZATION, authorization))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        });
+    }
+
+    @Test
+    void inMemoryReads_IssueNoStatements() throws Exception {
+        assertAtMostStatements(0, () -> perform(get("/api/v2/books/search").param("q", "counted")));
+        assertAtMostStatements(0, () -> perform(get("/api/v2/books/top10/search").param("title", "counted")));
+        assertAtMostStatements(0, () -> perform(get("/api/v2/books/facets")));
+        // The newest-books view may reload itself once after a write that left a gap in it.
+        assertAtMostStatements(1, () -> perform(get("/api/v2/books/newest").param("limit", "3")));
+        assertAtMostStatements(1, () -> perform(get("/api/v2/books/top3/newest")));
+    }
+
+    @Test
+    void conditionalListing_IssuesNoStatements() throws Exception {
+        String eTag = mockMvc.perform(get("/api/v2/books").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertAtMostStatements(0, () -> mockMvc.perform(get("/api/v2/books")
+                        .header(HttpHeaders.AUTHORIZATION, authorization)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified()));
+    }
+
+    @Test
+    void singleBookReadsAndWrites_StayWithinBudget() throws Exception {
+        assertAtMostStatements(1, () -> perform(get("/api/v2/books/{isbn}", "STMT000001")));
+        assertAtMostStatements(2, () -> perform(post("/api/v2/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book("STMTNEW001")))));
+        assertAtMostStatements(2, () -> perform(put("/api/v2/books/{isbn}", "STMTNEW001")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book("STMTNEW001")))));
+        BookPatch bookPatch = new BookPatch();
+        bookPatch.setTitle("Counted again");
+        assertAtMostStatements(2, () -> perform(patch("/api/v2/books/{isbn}", "STMTNEW001")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bookPatch))));
+        assertAtMostStatements(2, () -> perform(post("/api/v2/books/{isbn}/checkout", "STMTNEW001")));
+        assertAtMostStatements(2, () -> perform(post("/api/v2/books/{isbn}/return", "STMTNEW001")));
+        assertAtMostStatements(2, () -> perform(delete("/api/v2/books/{isbn}", "STMTNEW001")));
+    }
+
+    @Test
+    void batchUpdates_DoNotScaleWithBatchSize() throws Exception {
+        List<BookPatchItem> items = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            String isbn = "STMT" + String.format("%06d", i);
+            BookPatch bookPatch = new BookPatch();
+            bookPatch.setCopiesAvailable(4);
+            items.add(new BookPatchItem(isbn, bookPatch));
+            books.add(book(isbn));
+        }
+        // One IN query to load the batch, one JDBC batch to write it
+        assertAtMostStatements(2, () -> perform(patch("/api/v2/books/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(items))));
+        assertAtMostStatements(2, () -> perform(put("/api/v2/books/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(books))));
+    }
+
+    @Test
+    void bulkImports_DoNotScaleWithRowCount() throws Exception {
+        List<Book> books = new ArrayList<>();
+        StringBuilder csv = new StringBuilder("isbn,title,author,publicationYear,genre,copiesAvailable\n");
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(book("STMTJSON" + String.format("%02d", i)));
+            csv.append("STMTCSV0").append(String.format("%02d", i)).append(",Counted,Author,2001,FICTION,3\n");
+        }
+        // One query for existing ISBNs, one JDBC batch of inserts
+        assertAtMostStatements(2, () -> perform(post("/api/v2/books/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(books)))
+                .andExpect(jsonPath("$.imported").value(BOOKS)));
+        assertAtMostStatements(2, () -> perform(post("/api/v2/books/bulk")
+                .contentType("text/csv")
+                .content(csv.toString()))
+                .andExpect(jsonPath("$.imported").value(BOOKS)));
+    }
+
+    @Test
+    void userListing_IssuesOneStatementPerPage() throws Exception {
+        assertAtMostStatements(1, () -> perform(get("/api/v2/users").param("size", "5"))
+                .andExpect(jsonPath("$.items.length()").value(5))
+                .andExpect(jsonPath("$.items[0].username").exists())
+                .andExpect(jsonPath("$.items[0].password").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").exists()));
+        assertAtMostStatements(1, () -> perform(get("/api/v2/users").param("after", "5").param("size", "5")));
+    }
+
+    @Test
+    void firstUserPage_IncludesNonPositiveIds() throws Exception {
+        jdbcTemplate.update("insert into users (id, username, password, role_mask) values (0, 'zero', 'password', 1)");
+
+        assertAtMostStatements(1, () -> Assertions.assertThat(userDetailsService.getUsersPage(null, 1).getItems())
+                .extracting(UserSummary::getId).containsExactly(0L));
+    }
+
+    @Test
+    void userExport_IssuesOneStatement() throws Exception {
+        assertAtMostStatementsOnAllThreads(1, () -> {
+            MvcResult result = mockMvc.perform(get("/api/v2/users/export").header(HttpHeaders.AUTHORIZATION, authorization))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+            Assertions.assertThat(result.getResponse().getContentAsString().lines().count()).isGreaterThanOrEqualTo(USERS);
+        });
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().is2xxSuccessful());
+    }
+
+    private static Book book(String isbn) {
+        return new Book(isbn, "Counted " + isbn, "Query Counter", 2001, Genre.FICTION, 3);
+    }
+
+}
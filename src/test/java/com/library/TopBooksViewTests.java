@@ -0,0 +1,88 @@
+package com.library;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.library.entity.Book;
+import com.library.entity.Genre;
+import com.library.service.TopBooksView;
+
+/**
+ * Checks that a truncated view only goes back to the catalog when a write may have let a book
+ * it left out into the top.
+ */
+class TopBooksViewTests {
+
+    private static final Comparator<Book> NEWEST = Comparator.comparingInt(Book::getPublicationYear).reversed()
+            .thenComparing(Book::getIsbn);
+
+    private final List<Book> catalog = new ArrayList<>(List.of(
+            book("TOPVIEW001", 2020, 1), book("TOPVIEW002", 2015, 1), book("TOPVIEW003", 2010, 1),
+            book("TOPVIEW004", 2005, 1), book("TOPVIEW005", 2000, 1)));
+
+    private final CatalogView view = new CatalogView();
+
+    @Test
+    void copiesOnlyChange_KeepsTruncatedView() {
+        view.reload();
+
+        save(book("TOPVIEW003", 2010, 0));
+        save(book("TOPVIEW001", 2020, 0));
+
+        Assertions.assertThat(view.top(3)).extracting(Book::getIsbn).containsExactly("TOPVIEW001", "TOPVIEW002", "TOPVIEW003");
+        Assertions.assertThat(view.top(3).get(2).getCopiesAvailable()).isZero();
+        Assertions.assertThat(view.loads).isEqualTo(1);
+    }
+
+    @Test
+    void memberMovingWithinView_IsReplacedInPlace() {
+        view.reload();
+
+        save(book("TOPVIEW003", 2025, 1));
+        save(book("TOPVIEW001", 2016, 1));
+
+        Assertions.assertThat(view.top(3)).extracting(Book::getIsbn).containsExactly("TOPVIEW003", "TOPVIEW001", "TOPVIEW002");
+        Assertions.assertThat(view.loads).isEqualTo(1);
+    }
+
+    @Test
+    void memberFallingPastTail_ReloadsFromCatalog() {
+        view.reload();
+
+        save(book("TOPVIEW001", 1990, 1));
+
+        Assertions.assertThat(view.top(3)).extracting(Book::getIsbn).containsExactly("TOPVIEW002", "TOPVIEW003", "TOPVIEW004");
+        Assertions.assertThat(view.loads).isEqualTo(2);
+    }
+
+    private void save(Book book) {
+        Book previous = catalog.stream().filter(b -> b.getIsbn().equals(book.getIsbn())).findFirst().orElseThrow();
+        catalog.remove(previous);
+        catalog.add(book);
+        view.bookSaved(previous, book.copy());
+    }
+
+    private static Book book(String isbn, int year, int copies) {
+        return new Book(isbn, "Title " + isbn, "View Author", year, Genre.FICTION, copies);
+    }
+
+    private final class CatalogView extends TopBooksView {
+
+        private int loads;
+
+        private CatalogView() {
+            super(3, NEWEST);
+        }
+
+        @Override
+        protected List<Book> load(int limit) {
+            loads++;
+            return catalog.stream().sorted(NEWEST).limit(limit).map(Book::copy).toList();
+        }
+    }
+
+}
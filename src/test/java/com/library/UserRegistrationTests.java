@@ -0,0 +1,72 @@
+package com.library;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.library.entity.User;
+import com.library.exception.DuplicateUsernameException;
+import com.library.repository.UserRepository;
+import com.library.service.UserDetailsServiceImpl;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:userregistrationdb")
+@AutoConfigureMockMvc
+class UserRegistrationTests {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    void createUser_DuplicateUsername_ReturnsConflict() throws Exception {
+        String body = "{\"username\":\"registered\",\"password\":\"secret\",\"email\":\"registered@example.com\"}";
+        mockMvc.perform(post("/api/v1/create-user").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/v1/create-user").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Username registered already exists"));
+    }
+
+    @Test
+    void saveUser_SameUserAgain_Updates() {
+        User saved = userDetailsService.saveUser(user("resaved"));
+        saved.setPassword("changed");
+
+        userDetailsService.saveUser(saved);
+
+        Assertions.assertThat(userRepository.findByUsername("resaved")).get()
+                .extracting(User::getId).isEqualTo(saved.getId());
+    }
+
+    @Test
+    void saveUser_UsernameOfAnotherUser_IsRejected() {
+        userDetailsService.saveUser(user("taken"));
+        User other = userDetailsService.saveUser(user("other"));
+        other.setUsername("taken");
+
+        Assertions.assertThatThrownBy(() -> userDetailsService.saveUser(other))
+                .isInstanceOf(DuplicateUsernameException.class);
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        return user;
+    }
+
+}